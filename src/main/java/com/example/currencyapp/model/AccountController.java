@@ -1,5 +1,6 @@
 package com.example.currencyapp.model;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 
 import com.example.currencyapp.model.AccountResponse;
@@ -7,75 +8,141 @@ import com.example.currencyapp.model.DepositRequest;
 import com.example.currencyapp.model.TransferRequest;
 import com.example.currencyapp.model.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @RestController
 @RequestMapping("/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AccountController {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
 
     private final AccountService accountService;
 
+    @Value("${accounts.batch.max-size:10000}")
+    private int maxBatchSize = 10000;
+
     @Autowired
     public AccountController(AccountService accountService) {
         this.accountService = accountService;
     }
 
     @PostMapping
-    public ResponseEntity<AccountResponse> handleAccountOperation(@RequestBody Map<String, Object> request) {
-        logger.info("Received account operation request: {}", request);
-
-        if (request.containsKey("deposit")) {
-            DepositRequest depositRequest = new DepositRequest(
-                    (String) request.get("username"),
-                    ((Number) request.get("amount")).doubleValue(),
-                    (String) request.get("deposit")
-            );
-            logger.info("Processing deposit for username: {}", depositRequest.getUsername());
-            return accountService.handleDeposit(depositRequest);
-        } else if (request.containsKey("fromAccount") && request.containsKey("toAccount")) {
-            TransferRequest transferRequest = new TransferRequest(
-                    (String) request.get("username"),
-                    ((Number) request.get("amount")).doubleValue(),
-                    (String) request.get("fromAccount"),
-                    (String) request.get("toAccount")
-            );
-            logger.info("Processing transfer from account: {} to account: {}", transferRequest.getFromAccount(), transferRequest.getToAccount());
-            return accountService.handleTransfer(transferRequest);
-        } else {
-            logger.error("Invalid request body: {}", request);
+    public ResponseEntity<AccountResponse> handleAccountOperation(@RequestBody AccountOperation operation) {
+        if (!operation.hasRequiredFields()) {
+            logger.error("Invalid request body: missing fields for {}", operation.getClass().getSimpleName());
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Invalid request body"));
         }
+        if (operation instanceof DepositRequest depositRequest) {
+            logger.atDebug().addKeyValue("user", depositRequest.getUsername()).log("Deposit requested");
+            return accountService.handleDeposit(depositRequest);
+        }
+        TransferRequest transferRequest = (TransferRequest) operation;
+        logger.atDebug().addKeyValue("user", transferRequest.getUsername())
+                .addKeyValue("from", transferRequest.getFromAccount())
+                .addKeyValue("to", transferRequest.getToAccount())
+                .log("Transfer requested");
+        return accountService.handleTransfer(transferRequest);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<AccountResponse> handleBatchOperation(@RequestBody List<AccountOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            logger.error("Error: batch request contains no account operations.");
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new AccountResponse("error", "At least one operation is required"));
+        }
+        if (operations.size() > maxBatchSize) {
+            logger.error("Error: batch of {} account operations exceeds the limit of {}.", operations.size(), maxBatchSize);
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new AccountResponse("error", "A batch may contain at most " + maxBatchSize + " operations"));
+        }
+
+        logger.atDebug().addKeyValue("operations", operations.size()).log("Account batch requested");
+        return accountService.handleBatch(operations);
     }
 
     @GetMapping
     public ResponseEntity<AccountResponse> getAccounts(@RequestBody Map<String, String> request) {
-        logger.info("Received request to get accounts for username: {}", request.get("username"));
+        logger.atDebug().addKeyValue("user", request.get("username")).log("Accounts requested");
         return accountService.getUserAccounts(request.get("username"));
     }
 
+    @GetMapping("/valuation")
+    public ResponseEntity<AccountResponse> getValuation(@RequestParam String username, @RequestParam String target) {
+        logger.atDebug().addKeyValue("user", username).addKeyValue("target", target).log("Valuation requested");
+        return accountService.getValuation(username, target);
+    }
+
+    @GetMapping("/valuation/all")
+    public ResponseEntity<StreamingResponseBody> getAllValuations(@RequestParam String target) {
+        if (!accountService.canValueIn(target)) {
+            logger.error("Invalid valuation target currency: {}", target);
+            throw new InvalidRequestException("Invalid target currency");
+        }
+
+        logger.atDebug().addKeyValue("target", target).log("Valuation stream requested");
+        StreamingResponseBody body = out -> accountService.writeValuations(target, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @PutMapping
     public ResponseEntity<AccountResponse> updateAccount(@RequestBody Map<String, Object> request) {
         String username = (String) request.get("username");
         String account = (String) request.get("account");
-        double amount = ((Number) request.get("amount")).doubleValue();
+        BigDecimal amount = toAmount(request.get("amount"));
         
-        logger.info("Received request to update account: {} for username: {} with amount: {}", account, username, amount);
+        logger.atDebug().addKeyValue("user", username).addKeyValue("account", account).log("Update requested");
         return accountService.updateAccountBalance(username, account, amount);
     }
 
     @DeleteMapping
     public ResponseEntity<AccountResponse> deleteAccount(@RequestBody Map<String, String> request) {
-        logger.info("Received request to delete account: {} for username: {}", request.get("delete"), request.get("username"));
+        logger.atDebug().addKeyValue("user", request.get("username"))
+                .addKeyValue("account", request.get("delete"))
+                .log("Delete requested");
         return accountService.deleteAccount(request.get("username"), request.get("delete"));
     }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<AccountResponse> handleUnreadableBody(HttpMessageNotReadableException e) {
+        logger.error("Invalid request body: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new AccountResponse("error", "Invalid request body"));
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<AccountResponse> handleInvalidRequest(InvalidRequestException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new AccountResponse("error", e.getMessage()));
+    }
+
+    private static BigDecimal toAmount(Object amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
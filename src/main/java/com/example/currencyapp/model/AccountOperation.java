@@ -0,0 +1,20 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.math.BigDecimal;
+
+@JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION)
+@JsonSubTypes({
+        @JsonSubTypes.Type(DepositRequest.class),
+        @JsonSubTypes.Type(TransferRequest.class)
+})
+public sealed interface AccountOperation permits DepositRequest, TransferRequest {
+
+    String getUsername();
+
+    BigDecimal getAmount();
+
+    boolean hasRequiredFields();
+}
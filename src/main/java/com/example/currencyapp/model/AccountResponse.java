@@ -9,6 +9,10 @@ public class AccountResponse {
     private String message;
     private Map<String, Object> data;
     
+    public AccountResponse() {
+        this.data = new HashMap<>();
+    }
+    
     public AccountResponse(String status, String message) {
         this.status = status;
         this.message = message;
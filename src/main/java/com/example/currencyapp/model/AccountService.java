@@ -5,203 +5,439 @@ import com.example.currencyapp.model.DepositRequest;
 import com.example.currencyapp.model.TransferRequest;
 import com.example.currencyapp.model.UserAccount;
 import com.example.currencyapp.model.UserAccountRepository;
-import com.example.currencyapp.model.UserRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class AccountService {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
-
-    private final UserRepository userRepository;
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private static final long UNPRICED = Long.MIN_VALUE;
+    private static final String INVALID_AMOUNT = "Invalid amount";
+    private static final LogSampler depositLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final LogSampler transferLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final LogSampler updateLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final LogSampler deleteLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final LogSampler batchLogSampler = new LogSampler(Duration.ofSeconds(1));
+
+    private final UserDirectory userDirectory;
     private final UserAccountRepository userAccountRepository;
     private final CurrencyService currencyService;
+    private final LedgerService ledgerService;
+    private final PortfolioCache portfolioCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${accounts.lock.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${accounts.money.rounding:HALF_EVEN}")
+    private RoundingMode rounding = RoundingMode.HALF_EVEN;
 
     @Autowired
-    public AccountService(UserRepository userRepository, UserAccountRepository userAccountRepository, CurrencyService currencyService) {
-        this.userRepository = userRepository;
+    public AccountService(UserDirectory userDirectory, UserAccountRepository userAccountRepository,
+                          CurrencyService currencyService, LedgerService ledgerService,
+                          PortfolioCache portfolioCache, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.userDirectory = userDirectory;
         this.userAccountRepository = userAccountRepository;
         this.currencyService = currencyService;
+        this.ledgerService = ledgerService;
+        this.portfolioCache = portfolioCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
     }
 
     public ResponseEntity<AccountResponse> handleDeposit(DepositRequest request) {
+        return timed("deposit", () -> processDeposit(request));
+    }
+
+    private ResponseEntity<AccountResponse> processDeposit(DepositRequest request) {
         String username = request.getUsername();
-        double amount = request.getAmount();
+        BigDecimal amount = request.getAmount();
         String currencyCode = request.getDeposit().toLowerCase();
 
-        logger.info("Processing deposit: user={}, amount={}, currency={}", username, amount, currencyCode);
+        logger.atDebug().addKeyValue("user", username)
+                .addKeyValue("amount", amount)
+                .addKeyValue("currency", currencyCode)
+                .log("Processing deposit");
 
-        if (!userRepository.existsById(username)) {
+        if (!MinorUnits.isValidAmount(amount, currencyCode)) {
+            logger.warn("Deposit failed: invalid amount {} {}", amount, currencyCode);
+            return invalidAmount();
+        }
+        if (!userDirectory.exists(username)) {
             logger.warn("Deposit failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Username not found"));
         }
 
-        UserAccount account = userAccountRepository
-                .findByUsernameAndCurrencyCode(username, currencyCode)
-                .orElse(new UserAccount(username, currencyCode, 0.0));
-
-        double newBalance = account.getBalance() + amount;
-        account.setBalance(newBalance);
-        userAccountRepository.save(account);
-
-        logger.info("Deposit successful: user={}, newBalance={}", username, newBalance);
+        long amountMinor = MinorUnits.toMinor(amount, currencyCode, rounding);
+        long newBalance = inTransaction(() -> {
+            UserAccount account = findOrCreateAccount(username, currencyCode);
+            long balance = balanceOf(account);
+            ledgerService.record(username, currencyCode, LedgerEntryType.DEPOSIT, amountMinor, null);
+            return balance + amountMinor;
+        });
+        portfolioCache.invalidate(username);
+
+        if (logger.isInfoEnabled() && depositLogSampler.sample()) {
+            logger.atInfo().addKeyValue("user", username)
+                    .addKeyValue("currency", currencyCode)
+                    .addKeyValue("balance", newBalance)
+                    .addKeyValue("skipped", depositLogSampler.drainSkipped())
+                    .log("Deposit successful");
+        }
 
         AccountResponse response = new AccountResponse("success", "Deposit successful");
         response.addData("username", username);
         response.addData("currencyType", currencyCode);
-        response.addData("balance", newBalance);
+        response.addData("balance", MinorUnits.toDecimal(newBalance, currencyCode));
 
         return ResponseEntity.ok(response);
     }
 
-    @Transactional
     public ResponseEntity<AccountResponse> handleTransfer(TransferRequest request) {
+        return timed("transfer", () -> processTransfer(request));
+    }
+
+    private ResponseEntity<AccountResponse> processTransfer(TransferRequest request) {
         String username = request.getUsername();
-        double amount = request.getAmount();
+        BigDecimal amount = request.getAmount();
         String fromAccount = request.getFromAccount().toLowerCase();
         String toAccount = request.getToAccount().toLowerCase();
 
-        logger.info("Processing transfer: user={}, amount={}, from={}, to={}", username, amount, fromAccount, toAccount);
+        logger.atDebug().addKeyValue("user", username)
+                .addKeyValue("amount", amount)
+                .addKeyValue("from", fromAccount)
+                .addKeyValue("to", toAccount)
+                .log("Processing transfer");
 
-        if (!userRepository.existsById(username)) {
+        if (!MinorUnits.isValidAmount(amount, fromAccount)) {
+            logger.warn("Transfer failed: invalid amount {} {}", amount, fromAccount);
+            return invalidAmount();
+        }
+        if (!userDirectory.exists(username)) {
             logger.warn("Transfer failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Username not found"));
         }
 
-        Optional<UserAccount> fromAccountOpt = userAccountRepository
-                .findByUsernameAndCurrencyCode(username, fromAccount);
+        double rate = currencyService.calculateRate(fromAccount, toAccount);
+        long amountMinor = MinorUnits.toMinor(amount, fromAccount, rounding);
+
+        ResponseEntity<AccountResponse> result = inTransaction(() -> {
+            UserAccount fromAcct = lockAccounts(username, fromAccount).get(fromAccount);
+            long fromBalance = fromAcct == null ? 0L : balanceOf(fromAcct);
+
+            if (fromAcct == null || fromBalance < amountMinor) {
+                logger.warn("Transfer failed: insufficient funds or missing fromAccount for user {}", username);
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(new AccountResponse("error", "Insufficient funds or invalid fromAccount"));
+            }
+
+            if (rate < 0) {
+                logger.warn("Transfer failed: invalid currency pair {} to {}", fromAccount, toAccount);
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(new AccountResponse("error", "Invalid currency pair"));
+            }
+            long convertedMinor = MinorUnits.convert(amountMinor, fromAccount, toAccount, rate, rounding);
+
+            long newFromBalance = fromBalance - amountMinor;
+            UserAccount toAcct = fromAccount.equals(toAccount) ? fromAcct : findOrCreateAccount(username, toAccount);
+            long newToBalance = (fromAccount.equals(toAccount) ? newFromBalance : balanceOf(toAcct)) + convertedMinor;
+
+            ledgerService.record(username, fromAccount, LedgerEntryType.TRANSFER_OUT, -amountMinor, rate);
+            ledgerService.record(username, toAccount, LedgerEntryType.TRANSFER_IN, convertedMinor, rate);
+
+            BigDecimal convertedAmount = MinorUnits.toDecimal(convertedMinor, toAccount);
+            if (logger.isInfoEnabled() && transferLogSampler.sample()) {
+                logger.atInfo().addKeyValue("user", username)
+                        .addKeyValue("converted", convertedAmount)
+                        .addKeyValue("fromBalance", newFromBalance)
+                        .addKeyValue("toBalance", newToBalance)
+                        .addKeyValue("skipped", transferLogSampler.drainSkipped())
+                        .log("Transfer successful");
+            }
+
+            AccountResponse response = new AccountResponse("success", "Transfer successful");
+            response.addData("username", username);
+            response.addData("fromAccount", fromAccount);
+            response.addData("toAccount", toAccount);
+            response.addData("amountTransferred", convertedAmount);
+            response.addData("fromAccountBalance", MinorUnits.toDecimal(newFromBalance, fromAccount));
+            response.addData("toAccountBalance", MinorUnits.toDecimal(newToBalance, toAccount));
+
+            return ResponseEntity.ok(response);
+        });
+        portfolioCache.invalidate(username);
+        return result;
+    }
+
+    public ResponseEntity<AccountResponse> getUserAccounts(String username) {
+        logger.atDebug().addKeyValue("user", username).log("Fetching accounts");
 
-        if (fromAccountOpt.isEmpty() || fromAccountOpt.get().getBalance() < amount) {
-            logger.warn("Transfer failed: insufficient funds or missing fromAccount for user {}", username);
+        if (!userDirectory.exists(username)) {
+            logger.warn("Get accounts failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
-                    .body(new AccountResponse("error", "Insufficient funds or invalid fromAccount"));
+                    .body(new AccountResponse("error", "Username not found"));
         }
 
-        double rate = currencyService.calculateRate(fromAccount, toAccount);
-        double convertedAmount = amount * rate;
+        Map<String, BigDecimal> accountMap = portfolioCache.get(username, this::loadPortfolio);
 
-        UserAccount fromAcct = fromAccountOpt.get();
-        double newFromBalance = fromAcct.getBalance() - amount;
-        fromAcct.setBalance(newFromBalance);
-        userAccountRepository.save(fromAcct);
+        logger.atDebug().addKeyValue("user", username).log("Accounts retrieved");
 
-        UserAccount toAcct = userAccountRepository
-                .findByUsernameAndCurrencyCode(username, toAccount)
-                .orElse(new UserAccount(username, toAccount, 0.0));
-
-        double newToBalance = toAcct.getBalance() + convertedAmount;
-        toAcct.setBalance(newToBalance);
-        userAccountRepository.save(toAcct);
-
-        logger.info("Transfer successful: user={}, convertedAmount={}, fromBalance={}, toBalance={}",
-                username, convertedAmount, newFromBalance, newToBalance);
-
-        AccountResponse response = new AccountResponse("success", "Transfer successful");
-        response.addData("username", username);
-        response.addData("fromAccount", fromAccount);
-        response.addData("toAccount", toAccount);
-        response.addData("amountTransferred", convertedAmount);
-        response.addData("fromAccountBalance", newFromBalance);
-        response.addData("toAccountBalance", newToBalance);
+        AccountResponse response = new AccountResponse("success", "Accounts retrieved");
+        response.addData("accounts", accountMap);
 
         return ResponseEntity.ok(response);
     }
 
-    public ResponseEntity<AccountResponse> getUserAccounts(String username) {
-        logger.info("Fetching accounts for user {}", username);
+    public ResponseEntity<AccountResponse> getValuation(String username, String target) {
+        String targetCode = target.toLowerCase();
 
-        if (!userRepository.existsById(username)) {
-            logger.warn("Get accounts failed: user {} not found", username);
+        logger.atDebug().addKeyValue("user", username).addKeyValue("target", targetCode).log("Valuing accounts");
+
+        if (!userDirectory.exists(username)) {
+            logger.warn("Valuation failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Username not found"));
         }
 
-        List<UserAccount> accounts = userAccountRepository.findByUsername(username);
-        Map<String, Double> accountMap = new HashMap<>();
+        RateSnapshot snapshot = currencyService.getSnapshot();
+        CrossRateMatrix rates = snapshot.getCrossRates();
+        int targetIndex = rates.indexOf(targetCode);
+        if (targetIndex < 0) {
+            logger.warn("Valuation failed: unknown target currency {}", targetCode);
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new AccountResponse("error", "Invalid target currency"));
+        }
 
-        for (UserAccount account : accounts) {
-            accountMap.put(account.getCurrencyCode(), account.getBalance());
+        Map<String, BigDecimal> holdings = new HashMap<>();
+        long totalMinor = 0;
+        for (Map.Entry<String, BigDecimal> account : portfolioCache.get(username, this::loadPortfolio).entrySet()) {
+            String currencyCode = account.getKey();
+            long valueMinor = valueOf(rates, currencyCode, MinorUnits.toMinor(account.getValue(), currencyCode, rounding),
+                    targetCode, targetIndex);
+            if (valueMinor == UNPRICED) {
+                holdings.put(currencyCode, null);
+            } else {
+                holdings.put(currencyCode, MinorUnits.toDecimal(valueMinor, targetCode));
+                totalMinor += valueMinor;
+            }
         }
 
-        logger.info("Accounts retrieved for user {}", username);
+        if (logger.isDebugEnabled()) {
+            logger.atDebug().addKeyValue("user", username)
+                    .addKeyValue("target", targetCode)
+                    .addKeyValue("accounts", holdings.size())
+                    .addKeyValue("date", snapshot.getDate())
+                    .log("Accounts valued");
+        }
 
-        AccountResponse response = new AccountResponse("success", "Accounts retrieved");
-        response.addData("accounts", accountMap);
+        AccountResponse response = new AccountResponse("success", "Valuation calculated");
+        response.addData("username", username);
+        response.addData("target", targetCode);
+        response.addData("date", snapshot.getDate().toString());
+        response.addData("holdings", holdings);
+        response.addData("total", MinorUnits.toDecimal(totalMinor, targetCode));
 
         return ResponseEntity.ok(response);
     }
 
-    public ResponseEntity<AccountResponse> updateAccountBalance(String username, String account, double amount) {
+    public boolean canValueIn(String target) {
+        return currencyService.getSnapshot().getCrossRates().indexOf(target.toLowerCase()) >= 0;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeValuations(String target, OutputStream out) throws IOException {
+        String targetCode = target.toLowerCase();
+        RateSnapshot snapshot = currencyService.getSnapshot();
+        CrossRateMatrix rates = snapshot.getCrossRates();
+        int targetIndex = rates.indexOf(targetCode);
+
+        logger.atDebug().addKeyValue("target", targetCode)
+                .addKeyValue("date", snapshot.getDate())
+                .log("Streaming account valuations");
+
+        try (Stream<Object[]> balances = userAccountRepository.streamBalances();
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+
+            generator.writeStartArray();
+            String currentUser = null;
+            long totalMinor = 0;
+            Iterator<Object[]> rows = balances.iterator();
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                String username = (String) row[0];
+                String currencyCode = (String) row[1];
+                long balanceMinor = ((Number) row[2]).longValue();
+
+                if (!username.equals(currentUser)) {
+                    if (currentUser != null) {
+                        endValuation(generator, totalMinor, targetCode);
+                    }
+                    generator.writeStartObject();
+                    generator.writeStringField("username", username);
+                    generator.writeObjectFieldStart("holdings");
+                    currentUser = username;
+                    totalMinor = 0;
+                }
+
+                long valueMinor = valueOf(rates, currencyCode, balanceMinor, targetCode, targetIndex);
+                if (valueMinor == UNPRICED) {
+                    generator.writeNullField(currencyCode);
+                } else {
+                    generator.writeNumberField(currencyCode, MinorUnits.toDecimal(valueMinor, targetCode));
+                    totalMinor += valueMinor;
+                }
+            }
+            if (currentUser != null) {
+                endValuation(generator, totalMinor, targetCode);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static void endValuation(JsonGenerator generator, long totalMinor, String targetCode) throws IOException {
+        generator.writeEndObject();
+        generator.writeNumberField("total", MinorUnits.toDecimal(totalMinor, targetCode));
+        generator.writeEndObject();
+    }
+
+    private long valueOf(CrossRateMatrix rates, String currencyCode, long balanceMinor, String targetCode, int targetIndex) {
+        double rate = rates.rate(rates.indexOf(currencyCode), targetIndex);
+        return rate < 0 ? UNPRICED : MinorUnits.convert(balanceMinor, currencyCode, targetCode, rate, rounding);
+    }
+
+    public ResponseEntity<AccountResponse> updateAccountBalance(String username, String account, BigDecimal amount) {
+        return timed("update", () -> processUpdate(username, account, amount));
+    }
+
+    private ResponseEntity<AccountResponse> processUpdate(String username, String account, BigDecimal amount) {
         String currencyCode = account.toLowerCase();
 
-        logger.info("Updating account balance: user={}, account={}, newAmount={}", username, currencyCode, amount);
+        logger.atDebug().addKeyValue("user", username).addKeyValue("currency", currencyCode).log("Processing update");
 
-        if (!userRepository.existsById(username)) {
+        if (!MinorUnits.isValidBalance(amount, currencyCode)) {
+            logger.warn("Update failed: invalid amount {} {}", amount, currencyCode);
+            return invalidAmount();
+        }
+        if (!userDirectory.exists(username)) {
             logger.warn("Update failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Username not found"));
         }
 
-        UserAccount userAccount = userAccountRepository
-                .findByUsernameAndCurrencyCode(username, currencyCode)
-                .orElse(new UserAccount(username, currencyCode, 0.0));
-
-        userAccount.setBalance(amount);
-        userAccountRepository.save(userAccount);
-
-        logger.info("Account balance updated: user={}, currency={}, balance={}", username, currencyCode, amount);
+        long amountMinor = MinorUnits.toMinor(amount, currencyCode, rounding);
+        inTransaction(() -> {
+            UserAccount userAccount = lockAccounts(username, currencyCode).get(currencyCode);
+            if (userAccount == null) {
+                userAccount = userAccountRepository.save(new UserAccount(username, currencyCode, 0L));
+            }
+            return ledgerService.record(username, currencyCode, LedgerEntryType.ADJUSTMENT,
+                    amountMinor - balanceOf(userAccount), null);
+        });
+        portfolioCache.invalidate(username);
+
+        if (logger.isInfoEnabled() && updateLogSampler.sample()) {
+            logger.atInfo().addKeyValue("user", username)
+                    .addKeyValue("currency", currencyCode)
+                    .addKeyValue("balance", amount)
+                    .addKeyValue("skipped", updateLogSampler.drainSkipped())
+                    .log("Account balance updated");
+        }
 
         AccountResponse response = new AccountResponse("success", "Account balance updated successfully");
         response.addData("username", username);
         response.addData("currencyType", currencyCode);
-        response.addData("newBalance", amount);
+        response.addData("newBalance", MinorUnits.toDecimal(amountMinor, currencyCode));
 
         return ResponseEntity.ok(response);
     }
 
     public ResponseEntity<AccountResponse> deleteAccount(String username, String currencyCode) {
+        return timed("delete", () -> processDelete(username, currencyCode));
+    }
+
+    private ResponseEntity<AccountResponse> processDelete(String username, String currencyCode) {
         currencyCode = currencyCode.toLowerCase();
 
-        logger.info("Deleting account: user={}, currency={}", username, currencyCode);
+        logger.atDebug().addKeyValue("user", username).addKeyValue("currency", currencyCode).log("Processing delete");
 
-        if (!userRepository.existsById(username)) {
+        if (!userDirectory.exists(username)) {
             logger.warn("Delete failed: user {} not found", username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Username not found"));
         }
 
-        Optional<UserAccount> account = userAccountRepository
-                .findByUsernameAndCurrencyCode(username, currencyCode);
-
-        if (account.isEmpty()) {
+        String code = currencyCode;
+        boolean deleted = inTransaction(() -> {
+            UserAccount account = lockAccounts(username, code).get(code);
+            if (account == null) {
+                return false;
+            }
+            ledgerService.close(account);
+            userAccountRepository.delete(account);
+            return true;
+        });
+        portfolioCache.invalidate(username);
+
+        if (!deleted) {
             logger.warn("Delete failed: currency account {} not found for user {}", currencyCode, username);
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(new AccountResponse("error", "Currency type account not found"));
         }
 
-        userAccountRepository.delete(account.get());
-
-        logger.info("Account deleted: user={}, currency={}", username, currencyCode);
+        if (logger.isInfoEnabled() && deleteLogSampler.sample()) {
+            logger.atInfo().addKeyValue("user", username)
+                    .addKeyValue("currency", currencyCode)
+                    .addKeyValue("skipped", deleteLogSampler.drainSkipped())
+                    .log("Account deleted");
+        }
 
         AccountResponse response = new AccountResponse("success", "Currency type account deleted successfully");
         response.addData("username", username);
@@ -209,4 +445,216 @@ public class AccountService {
 
         return ResponseEntity.ok(response);
     }
+
+    public ResponseEntity<AccountResponse> handleBatch(List<AccountOperation> operations) {
+        return timed("batch", () -> processBatch(operations));
+    }
+
+    private ResponseEntity<AccountResponse> processBatch(List<AccountOperation> operations) {
+        logger.atDebug().addKeyValue("operations", operations.size()).log("Processing account batch");
+
+        Set<String> usernames = new TreeSet<>();
+        boolean hasTransfers = false;
+        for (AccountOperation operation : operations) {
+            if (operation != null && operation.getUsername() != null) {
+                usernames.add(operation.getUsername());
+            }
+            hasTransfers |= operation instanceof TransferRequest;
+        }
+
+        Set<String> knownUsers = userDirectory.existing(usernames);
+        CrossRateMatrix rates = hasTransfers ? currencyService.getSnapshot().getCrossRates() : null;
+
+        List<AccountResponse> results = inTransaction(() -> new BatchRun(knownUsers, rates).apply(operations));
+        knownUsers.forEach(portfolioCache::invalidate);
+
+        int failed = 0;
+        for (AccountResponse result : results) {
+            if (!"success".equals(result.getStatus())) {
+                failed++;
+            }
+        }
+        if (logger.isInfoEnabled() && batchLogSampler.sample()) {
+            logger.atInfo().addKeyValue("operations", results.size())
+                    .addKeyValue("failed", failed)
+                    .addKeyValue("skipped", batchLogSampler.drainSkipped())
+                    .log("Account batch processed");
+        }
+
+        AccountResponse response = new AccountResponse("success", "Batch processed");
+        response.addData("succeeded", results.size() - failed);
+        response.addData("failed", failed);
+        response.addData("results", results);
+
+        return ResponseEntity.ok(response);
+    }
+
+    private class BatchRun {
+
+        private final Set<String> knownUsers;
+        private final CrossRateMatrix rates;
+        private final Map<UserAccountId, Long> balances = new HashMap<>();
+        private final List<UserAccount> createdAccounts = new ArrayList<>();
+        private final List<LedgerEntry> entries = new ArrayList<>();
+
+        BatchRun(Set<String> knownUsers, CrossRateMatrix rates) {
+            this.knownUsers = knownUsers;
+            this.rates = rates;
+        }
+
+        List<AccountResponse> apply(List<AccountOperation> operations) {
+            balances.clear();
+            createdAccounts.clear();
+            entries.clear();
+
+            if (!knownUsers.isEmpty()) {
+                for (UserAccount account : userAccountRepository.findAllForUpdateByUsernameIn(knownUsers)) {
+                    balances.put(account.getId(), account.getBalanceMinor());
+                }
+                ledgerService.pendingBalances(knownUsers).forEach((id, pending) -> balances.merge(id, pending, Long::sum));
+            }
+
+            List<AccountResponse> results = new ArrayList<>(operations.size());
+            for (int index = 0; index < operations.size(); index++) {
+                AccountOperation operation = operations.get(index);
+                AccountResponse result;
+                if (operation == null || !operation.hasRequiredFields()) {
+                    result = new AccountResponse("error", "Invalid request body");
+                } else if (!knownUsers.contains(operation.getUsername())) {
+                    result = new AccountResponse("error", "Username not found");
+                } else if (operation instanceof DepositRequest deposit) {
+                    result = deposit(deposit);
+                } else {
+                    result = transfer((TransferRequest) operation);
+                }
+                result.addData("index", index);
+                results.add(result);
+            }
+
+            userAccountRepository.saveAll(createdAccounts);
+            ledgerService.recordAll(entries);
+            return results;
+        }
+
+        private AccountResponse deposit(DepositRequest request) {
+            String username = request.getUsername();
+            String currencyCode = request.getDeposit().toLowerCase();
+            if (!MinorUnits.isValidAmount(request.getAmount(), currencyCode)) {
+                return new AccountResponse("error", INVALID_AMOUNT);
+            }
+            long amountMinor = MinorUnits.toMinor(request.getAmount(), currencyCode, rounding);
+
+            long newBalance = credit(username, currencyCode, amountMinor);
+            entries.add(new LedgerEntry(username, currencyCode, LedgerEntryType.DEPOSIT, amountMinor, null));
+
+            AccountResponse response = new AccountResponse("success", "Deposit successful");
+            response.addData("username", username);
+            response.addData("currencyType", currencyCode);
+            response.addData("balance", MinorUnits.toDecimal(newBalance, currencyCode));
+            return response;
+        }
+
+        private AccountResponse transfer(TransferRequest request) {
+            String username = request.getUsername();
+            String fromAccount = request.getFromAccount().toLowerCase();
+            String toAccount = request.getToAccount().toLowerCase();
+            if (!MinorUnits.isValidAmount(request.getAmount(), fromAccount)) {
+                return new AccountResponse("error", INVALID_AMOUNT);
+            }
+            long amountMinor = MinorUnits.toMinor(request.getAmount(), fromAccount, rounding);
+
+            UserAccountId fromId = new UserAccountId(username, fromAccount);
+            Long fromBalance = balances.get(fromId);
+            if (fromBalance == null || fromBalance < amountMinor) {
+                return new AccountResponse("error", "Insufficient funds or invalid fromAccount");
+            }
+
+            double rate = rates.rate(fromAccount, toAccount);
+            if (rate < 0) {
+                return new AccountResponse("error", "Invalid currency pair");
+            }
+            long convertedMinor = MinorUnits.convert(amountMinor, fromAccount, toAccount, rate, rounding);
+
+            long newFromBalance = fromBalance - amountMinor;
+            balances.put(fromId, newFromBalance);
+            long newToBalance = credit(username, toAccount, convertedMinor);
+            entries.add(new LedgerEntry(username, fromAccount, LedgerEntryType.TRANSFER_OUT, -amountMinor, rate));
+            entries.add(new LedgerEntry(username, toAccount, LedgerEntryType.TRANSFER_IN, convertedMinor, rate));
+
+            AccountResponse response = new AccountResponse("success", "Transfer successful");
+            response.addData("username", username);
+            response.addData("fromAccount", fromAccount);
+            response.addData("toAccount", toAccount);
+            response.addData("amountTransferred", MinorUnits.toDecimal(convertedMinor, toAccount));
+            response.addData("fromAccountBalance", MinorUnits.toDecimal(newFromBalance, fromAccount));
+            response.addData("toAccountBalance", MinorUnits.toDecimal(newToBalance, toAccount));
+            return response;
+        }
+
+        private long credit(String username, String currencyCode, long amountMinor) {
+            UserAccountId id = new UserAccountId(username, currencyCode);
+            if (!balances.containsKey(id)) {
+                createdAccounts.add(new UserAccount(username, currencyCode, 0L));
+            }
+            return balances.merge(id, amountMinor, Long::sum);
+        }
+    }
+
+    private Map<String, BigDecimal> loadPortfolio(String username) {
+        Map<String, BigDecimal> accountMap = new HashMap<>();
+        for (Object[] row : userAccountRepository.findBalancesByUsername(username)) {
+            String currencyCode = (String) row[0];
+            accountMap.put(currencyCode, MinorUnits.toDecimal(((Number) row[1]).longValue(), currencyCode));
+        }
+        return accountMap;
+    }
+
+    private UserAccount findOrCreateAccount(String username, String currencyCode) {
+        return userAccountRepository.findByUsernameAndCurrencyCode(username, currencyCode)
+                .orElseGet(() -> userAccountRepository.save(new UserAccount(username, currencyCode, 0L)));
+    }
+
+    private long balanceOf(UserAccount account) {
+        return userAccountRepository.findBalance(account.getUsername(), account.getCurrencyCode())
+                .orElse(account.getBalanceMinor());
+    }
+
+    private Map<String, UserAccount> lockAccounts(String username, String... currencyCodes) {
+        Map<String, UserAccount> accounts = new HashMap<>();
+        for (UserAccount account : userAccountRepository.findAllForUpdate(username, new TreeSet<>(List.of(currencyCodes)))) {
+            accounts.put(account.getCurrencyCode(), account);
+        }
+        return accounts;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Account update conflicted (attempt {} of {}), retrying: {}", attempt, maxAttempts, e.getMessage());
+            }
+        }
+    }
+
+    private static ResponseEntity<AccountResponse> invalidAmount() {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new AccountResponse("error", INVALID_AMOUNT));
+    }
+
+    private ResponseEntity<AccountResponse> timed(String operation, Supplier<ResponseEntity<AccountResponse>> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "exception";
+        try {
+            ResponseEntity<AccountResponse> response = work.get();
+            outcome = response.getStatusCode().is2xxSuccessful() ? "success" : "error";
+            return response;
+        } finally {
+            sample.stop(meterRegistry.timer("accounts.operations", "operation", operation, "outcome", outcome));
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.example.currencyapp.model;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+@Component
+public class ApplicationMetrics implements MeterBinder {
+
+    private final CurrencyService currencyService;
+    private final PortfolioCache portfolioCache;
+    private final UserDirectory userDirectory;
+
+    @Autowired
+    public ApplicationMetrics(CurrencyService currencyService, PortfolioCache portfolioCache, UserDirectory userDirectory) {
+        this.currencyService = currencyService;
+        this.portfolioCache = portfolioCache;
+        this.userDirectory = userDirectory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("currency.rates.snapshot.age", currencyService, ApplicationMetrics::snapshotAgeSeconds)
+                .description("Time since the start of the day the current rate snapshot is for")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("currency.rates.snapshot.currencies", currencyService, ApplicationMetrics::snapshotCurrencies)
+                .description("Number of currencies in the current rate snapshot")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", portfolioCache, PortfolioCache::getHitCount)
+                .tags("cache", "portfolios", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", portfolioCache, PortfolioCache::getMissCount)
+                .tags("cache", "portfolios", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", portfolioCache, PortfolioCache::getEvictionCount)
+                .tags("cache", "portfolios")
+                .register(registry);
+        Gauge.builder("cache.size", portfolioCache, PortfolioCache::size)
+                .tags("cache", "portfolios")
+                .register(registry);
+        Gauge.builder("cache.size", userDirectory, UserDirectory::size)
+                .tags("cache", "users")
+                .register(registry);
+    }
+
+    private static double snapshotAgeSeconds(CurrencyService currencyService) {
+        RateSnapshot snapshot = currencyService.getCurrentSnapshot();
+        if (snapshot == null) {
+            return Double.NaN;
+        }
+        Instant start = snapshot.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        return Duration.between(start, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static double snapshotCurrencies(CurrencyService currencyService) {
+        RateSnapshot snapshot = currencyService.getCurrentSnapshot();
+        return snapshot == null ? Double.NaN : snapshot.getRates().size();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.currencyapp.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class CrossRateMatrix {
+
+    private static final String BASE_CURRENCY = "usd";
+
+    private final String[] currencies;
+    private final Map<String, Integer> indexes;
+    private final double[] matrix;
+    private final int size;
+
+    public CrossRateMatrix(Map<String, Double> usdRates) {
+        String[] codes = usdRates.keySet().toArray(new String[0]);
+        Arrays.sort(codes);
+
+        boolean hasBase = usdRates.containsKey(BASE_CURRENCY);
+        this.size = hasBase ? codes.length : codes.length + 1;
+        this.currencies = new String[size];
+        this.indexes = new HashMap<>(size * 2);
+
+        double[] baseRates = new double[size];
+        int next = 0;
+        if (!hasBase) {
+            currencies[next] = BASE_CURRENCY;
+            baseRates[next] = 1.0;
+            indexes.put(BASE_CURRENCY, next++);
+        }
+        for (String code : codes) {
+            Double rate = usdRates.get(code);
+            currencies[next] = code;
+            baseRates[next] = rate == null ? Double.NaN : rate;
+            indexes.put(code, next++);
+        }
+
+        this.matrix = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            int row = from * size;
+            for (int to = 0; to < size; to++) {
+                matrix[row + to] = crossRate(baseRates, from, to);
+            }
+        }
+    }
+
+    private static double crossRate(double[] baseRates, int from, int to) {
+        if (from == to) {
+            return 1.0;
+        }
+        double rate = baseRates[to] / baseRates[from];
+        return Double.isFinite(rate) && rate > 0 ? rate : -1;
+    }
+
+    public int indexOf(String currency) {
+        Integer index = currency == null ? null : indexes.get(currency);
+        return index == null ? -1 : index;
+    }
+
+    public double rate(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex < 0) {
+            return -1;
+        }
+        return matrix[fromIndex * size + toIndex];
+    }
+
+    public double rate(String fromCurrency, String toCurrency) {
+        return rate(indexOf(fromCurrency), indexOf(toCurrency));
+    }
+
+    public String currencyAt(int index) {
+        return currencies[index];
+    }
+
+    public int size() {
+        return size;
+    }
+}
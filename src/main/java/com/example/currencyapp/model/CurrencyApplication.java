@@ -3,6 +3,7 @@ package com.example.currencyapp.model;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -21,6 +22,7 @@ import java.util.Collections;
 import java.util.Map;
 
 @SpringBootApplication
+@EnableScheduling
 @RestController
 public class CurrencyApplication {
 
@@ -0,0 +1,31 @@
+package com.example.currencyapp.model;
+
+import java.util.List;
+
+public class CurrencyBatchResponse {
+    private String date;
+    private List<CurrencyBatchResult> results;
+    
+    public CurrencyBatchResponse() {}
+    
+    public CurrencyBatchResponse(String date, List<CurrencyBatchResult> results) {
+        this.date = date;
+        this.results = results;
+    }
+    
+    public String getDate() {
+        return date;
+    }
+    
+    public void setDate(String date) {
+        this.date = date;
+    }
+    
+    public List<CurrencyBatchResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<CurrencyBatchResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CurrencyBatchResult {
+    private String fromCurrency;
+    private String toCurrency;
+    private Double rate;
+    private Double amount;
+    private Double convertedAmount;
+    private String error;
+    
+    public CurrencyBatchResult() {}
+    
+    public CurrencyBatchResult(String fromCurrency, String toCurrency, double rate, Double amount) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.rate = rate;
+        this.amount = amount;
+        this.convertedAmount = amount == null ? null : amount * rate;
+    }
+    
+    public static CurrencyBatchResult error(String fromCurrency, String toCurrency, String error) {
+        CurrencyBatchResult result = new CurrencyBatchResult();
+        result.setFromCurrency(fromCurrency);
+        result.setToCurrency(toCurrency);
+        result.setError(error);
+        return result;
+    }
+    
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+    
+    public void setFromCurrency(String fromCurrency) {
+        this.fromCurrency = fromCurrency;
+    }
+    
+    public String getToCurrency() {
+        return toCurrency;
+    }
+    
+    public void setToCurrency(String toCurrency) {
+        this.toCurrency = toCurrency;
+    }
+    
+    public Double getRate() {
+        return rate;
+    }
+    
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+    
+    public Double getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+    
+    public Double getConvertedAmount() {
+        return convertedAmount;
+    }
+    
+    public void setConvertedAmount(Double convertedAmount) {
+        this.convertedAmount = convertedAmount;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
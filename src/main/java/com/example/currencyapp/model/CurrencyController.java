@@ -1,29 +1,56 @@
 package com.example.currencyapp.model;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @RestController
 @RequestMapping("/currencies")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CurrencyController {
 
     private static final Logger logger = LoggerFactory.getLogger(CurrencyController.class);
+    private static final LogSampler quoteLogSampler = new LogSampler(Duration.ofSeconds(1));
 
     @Autowired
     private CurrencyService currencyService;
 
+    @Autowired
+    private RateStreamService rateStreamService;
+
+    @Autowired
+    private RatesResponder ratesResponder;
+
+    @Value("${currency.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
     @GetMapping
-    public ResponseEntity<?> getCurrencies() {
-        logger.info("Request to get all currencies rates.");
-        HashMap<String, Double> rates = currencyService.getRates();
-        logger.info("Returning currency rates: {}", rates);
-        return ResponseEntity.ok(rates);
+    public ResponseEntity<byte[]> getCurrencies(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Request to get all currencies rates.");
+        return ratesResponder.respond(currencyService.getSnapshot(), ifNoneMatch, ifModifiedSince, acceptEncoding);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRates() {
+        logger.debug("Rate stream requested");
+        return rateStreamService.subscribe();
     }
 
     @PostMapping
@@ -37,7 +64,7 @@ public class CurrencyController {
 
         String fromCurrency = request.getFromCurrency().toLowerCase();
         String toCurrency = request.getToCurrency().toLowerCase();
-        logger.info("Calculating exchange rate from {} to {}", fromCurrency, toCurrency);
+        logger.atDebug().addKeyValue("from", fromCurrency).addKeyValue("to", toCurrency).log("Exchange rate requested");
 
         double rate = currencyService.calculateRate(fromCurrency, toCurrency);
         if (rate < 0) {
@@ -48,10 +75,56 @@ public class CurrencyController {
         }
 
         CurrencyResponse response = new CurrencyResponse(fromCurrency, toCurrency, rate);
-        logger.info("Exchange rate from {} to {} is: {}", fromCurrency, toCurrency, rate);
+        if (logger.isInfoEnabled() && quoteLogSampler.sample()) {
+            logger.atInfo().addKeyValue("from", fromCurrency)
+                    .addKeyValue("to", toCurrency)
+                    .addKeyValue("rate", rate)
+                    .addKeyValue("skipped", quoteLogSampler.drainSkipped())
+                    .log("Exchange rate calculated");
+        }
         return ResponseEntity.ok(response);
     }
 
-}
+    @PostMapping("/batch")
+    public ResponseEntity<?> getExchangeRates(@RequestBody List<CurrencyRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            logger.error("Error: batch request contains no currency pairs.");
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "At least one currency pair is required.");
+            return ResponseEntity.badRequest().body(error);
+        }
+        if (requests.size() > maxBatchSize) {
+            logger.error("Error: batch of {} currency pairs exceeds the limit of {}.", requests.size(), maxBatchSize);
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "A batch may contain at most " + maxBatchSize + " currency pairs.");
+            return ResponseEntity.badRequest().body(error);
+        }
 
+        logger.atDebug().addKeyValue("pairs", requests.size()).log("Exchange rate batch requested");
+        return ResponseEntity.ok(currencyService.convertBatch(requests));
+    }
 
+    @GetMapping("/history")
+    public ResponseEntity<StreamingResponseBody> getHistory(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(required = false) String currency) {
+        if (from.isAfter(to)) {
+            logger.error("Invalid history range: {} is after {}.", from, to);
+            throw new InvalidRequestException("'from' must not be after 'to'.");
+        }
+
+        logger.atDebug().addKeyValue("from", from)
+                .addKeyValue("to", to)
+                .addKeyValue("currency", currency)
+                .log("Rate history requested");
+        StreamingResponseBody body = out -> currencyService.writeHistory(from, to, currency, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<HashMap<String, String>> handleInvalidRequest(InvalidRequestException e) {
+        HashMap<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+}
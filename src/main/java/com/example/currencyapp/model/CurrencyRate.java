@@ -1,20 +1,25 @@
 package com.example.currencyapp.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 
 @Entity
-@Table(name = "currency_rates")
+@Table(name = "currency_rates", indexes = {
+        @Index(name = "idx_currency_rates_date", columnList = "rate_date, currency_code, rate")
+})
+@IdClass(CurrencyRateId.class)
 public class CurrencyRate {
     
+    @Id
+    @Column(name = "rate_date")
+    private LocalDate date;
+    
     @Id
     @Column(name = "currency_code")
     private String currencyCode;
     
     @Column(name = "rate")
     private Double rate;
-    
-    @Column(name = "date")
-    private String date;
  
     public String getCurrencyCode() {
         return currencyCode;
@@ -24,11 +29,11 @@ public class CurrencyRate {
         this.currencyCode = currencyCode;
     }
     
-    public String getDate() {
+    public LocalDate getDate() {
         return date;
     }
     
-    public void setDate(String date) {
+    public void setDate(LocalDate date) {
         this.date = date;
     }
     
@@ -0,0 +1,59 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+@Repository
+public class CurrencyRateBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRateBatchRepository.class);
+
+    private static final String INSERT_RATE = "INSERT INTO currency_rates (rate_date, currency_code, rate) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrencyRateRepository currencyRateRepository;
+
+    @Value("${currency.rates.batch-size:100}")
+    private int batchSize = 100;
+
+    @Autowired
+    public CurrencyRateBatchRepository(JdbcTemplate jdbcTemplate, CurrencyRateRepository currencyRateRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.currencyRateRepository = currencyRateRepository;
+    }
+
+    @Transactional
+    public int replaceRates(LocalDate date, RatePayload rates) {
+        int deleted = currencyRateRepository.deleteByDate(date);
+        logger.debug("Deleted {} existing rate rows before storing rates for {}", deleted, date);
+
+        for (int offset = 0; offset < rates.size(); offset += batchSize) {
+            int first = offset;
+            int count = Math.min(batchSize, rates.size() - offset);
+            jdbcTemplate.batchUpdate(INSERT_RATE, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setObject(1, date);
+                    statement.setString(2, rates.currencyAt(first + i).toUpperCase());
+                    statement.setDouble(3, rates.rateAt(first + i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+        }
+        return rates.size();
+    }
+}
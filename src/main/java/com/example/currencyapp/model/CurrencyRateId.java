@@ -0,0 +1,49 @@
+package com.example.currencyapp.model;
+
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class CurrencyRateId implements Serializable {
+    
+    private LocalDate date;
+    private String currencyCode;
+    
+    public CurrencyRateId() {}
+    
+    public CurrencyRateId(LocalDate date, String currencyCode) {
+        this.date = date;
+        this.currencyCode = currencyCode;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CurrencyRateId that = (CurrencyRateId) o;
+        return Objects.equals(date, that.date) &&
+                Objects.equals(currencyCode, that.currencyCode);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, currencyCode);
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+    
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+}
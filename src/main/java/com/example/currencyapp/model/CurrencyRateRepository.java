@@ -1,17 +1,44 @@
 package com.example.currencyapp.model;
 
 import com.example.currencyapp.model.CurrencyRate;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface CurrencyRateRepository extends JpaRepository<CurrencyRate, String> {
+public interface CurrencyRateRepository extends JpaRepository<CurrencyRate, CurrencyRateId> {
     
     @Query("SELECT c FROM CurrencyRate c WHERE c.date = :date")
-    List<CurrencyRate> findByDate(@Param("date") String date);
-}
+    List<CurrencyRate> findByDate(@Param("date") LocalDate date);
+
+    @Query("SELECT MAX(c.date) FROM CurrencyRate c WHERE c.date < :date")
+    LocalDate findLatestDateBefore(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM CurrencyRate c WHERE c.date = :date")
+    int deleteByDate(@Param("date") LocalDate date);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT c FROM CurrencyRate c WHERE c.date BETWEEN :from AND :to ORDER BY c.date, c.currencyCode")
+    Stream<CurrencyRate> streamByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT c FROM CurrencyRate c WHERE c.currencyCode = :currency AND c.date BETWEEN :from AND :to ORDER BY c.date")
+    Stream<CurrencyRate> streamByCurrencyAndDateBetween(@Param("currency") String currency,
+                                                        @Param("from") LocalDate from,
+                                                        @Param("to") LocalDate to);
+}
@@ -3,6 +3,7 @@ package com.example.currencyapp.model;
 public class CurrencyRequest {
     private String fromCurrency;
     private String toCurrency;
+    private Double amount;
     
     public String getFromCurrency() {
         return fromCurrency;
@@ -19,5 +20,12 @@ public class CurrencyRequest {
     public void setToCurrency(String toCurrency) {
         this.toCurrency = toCurrency;
     }
+    
+    public Double getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
 }
-
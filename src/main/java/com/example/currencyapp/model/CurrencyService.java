@@ -1,62 +1,365 @@
 package com.example.currencyapp.model;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @Service
 public class CurrencyService {
 
     private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
+    private static final LogSampler batchLogSampler = new LogSampler(Duration.ofSeconds(1));
 
     private static final String API = "https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@%s/v1/currencies/usd.json";
-    private static final Gson gson = new Gson();
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<RateSnapshot> pendingSnapshot = new AtomicReference<>();
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    private final ConcurrentHashMap<LocalDate, CompletableFuture<RateSnapshot>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private volatile long retryFetchAfter;
+    private volatile RateSnapshot unavailableSnapshot;
+
+    @Value("${currency.api.url:" + API + "}")
+    private String apiUrl = API;
+
+    @Value("${currency.api.fallback-retry:60s}")
+    private Duration fallbackRetry = Duration.ofSeconds(60);
+
+    @Autowired
+    private RateApiClient rateApiClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private CurrencyRateRepository currencyRateRepository;
 
-    public HashMap<String, Double> getRates() {
-        String todayDate = getCurrentDate();
-        logger.info("Fetching currency rates for date: {}", todayDate);
+    @Autowired
+    private CurrencyRateBatchRepository currencyRateBatchRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Map<String, Double> getRates() {
+        return getSnapshot().getRates();
+    }
+
+    public RateSnapshot getSnapshot() {
+        RateSnapshot loaded = getSnapshotIfLoaded();
+        if (loaded != null) {
+            return loaded;
+        }
+
+        LocalDate today = LocalDate.now();
+        if (System.currentTimeMillis() < retryFetchAfter) {
+            RateSnapshot current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+            RateSnapshot unavailable = unavailableSnapshot;
+            if (unavailable != null && unavailable.isFor(today)) {
+                return unavailable;
+            }
+        }
+
+        loaded = loadOnce(today);
+        if (loaded.getRates().isEmpty()) {
+            retryFetchAfter = System.currentTimeMillis() + fallbackRetry.toMillis();
+            RateSnapshot fallback = lastGoodSnapshot(today);
+            if (fallback != null) {
+                logger.warn("No rates available for {}, serving last good snapshot from {}", today, fallback.getDate());
+                return fallback;
+            }
+            logger.warn("No rates available for {} and none stored, retrying upstream after {}", today, fallbackRetry);
+            unavailableSnapshot = loaded;
+        }
+        return loaded;
+    }
+
+    public RateSnapshot getSnapshotIfLoaded() {
+        LocalDate today = LocalDate.now();
+        RateSnapshot current = snapshot.get();
+        if (current != null && current.isFor(today)) {
+            return current;
+        }
+
+        RateSnapshot staged = pendingSnapshot.get();
+        if (staged != null && staged.isFor(today)) {
+            installSnapshot(staged);
+            pendingSnapshot.compareAndSet(staged, null);
+            return staged;
+        }
+        return null;
+    }
+
+    public RateSnapshot getCurrentSnapshot() {
+        return snapshot.get();
+    }
+
+    public RateSnapshot loadStoredSnapshot(LocalDate date) {
+        Map<String, Double> storedRates = fetchRatesFromDatabase(date);
+        if (storedRates != null) {
+            RateSnapshot stored = new RateSnapshot(date, snapshotVersion.incrementAndGet(), storedRates);
+            publishSnapshot(stored);
+            return stored;
+        }
+        return lastGoodSnapshot(date);
+    }
+
+    public CompletableFuture<RateSnapshot> fetchSnapshotAsync(LocalDate date, Executor blockingExecutor) {
+        logger.info("Fetching rates from external API for date: {}", date);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return rateApiClient.fetchAsync(String.format(apiUrl, date), null, null, blockingExecutor)
+                .handleAsync((response, failure) -> {
+                    if (failure != null) {
+                        recordFetchFailure(sample, failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure);
+                        return new RateSnapshot(date, snapshotVersion.incrementAndGet(), Map.of());
+                    }
+                    RateSnapshot fetched = toSnapshot(date, storeFetchedRates(date, response, sample));
+                    publishSnapshot(fetched);
+                    return fetched;
+                }, blockingExecutor);
+    }
+
+    public void revalidateRates() {
+        RateSnapshot current = snapshot.get();
+        if (current == null || !current.isFor(LocalDate.now())) {
+            return;
+        }
+
+        RateApiClient.Response response = fetchAndStoreRatesInDatabase(current.getDate(), current);
+        if (response == null || response.isNotModified() || response.getPayload() == null) {
+            return;
+        }
+        installSnapshot(new RateSnapshot(current.getDate(), snapshotVersion.incrementAndGet(),
+                response.getPayload().toMap(), response.getEtag(), response.getLastModified()));
+    }
+
+    private RateSnapshot lastGoodSnapshot(LocalDate today) {
+        RateSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+
+        LocalDate latest = currencyRateRepository.findLatestDateBefore(today);
+        if (latest == null) {
+            return null;
+        }
+        Map<String, Double> storedRates = fetchRatesFromDatabase(latest);
+        if (storedRates == null) {
+            return null;
+        }
+        RateSnapshot fallback = new RateSnapshot(latest, snapshotVersion.incrementAndGet(), storedRates);
+        installSnapshot(fallback);
+        return fallback;
+    }
+
+    public void prefetchRates(LocalDate date) {
+        if (loadedSnapshotFor(date) != null) {
+            logger.debug("Rates for {} already loaded, skipping prefetch", date);
+            return;
+        }
+
+        RateSnapshot loaded = loadOnce(date);
+        if (loaded.getRates().isEmpty()) {
+            logger.warn("Prefetch for {} returned no rates, will retry on next run", date);
+        } else {
+            logger.info("Prefetched {} currency rates for {}", loaded.getRates().size(), date);
+        }
+    }
+
+    private RateSnapshot loadOnce(LocalDate date) {
+        CompletableFuture<RateSnapshot> call = new CompletableFuture<>();
+        CompletableFuture<RateSnapshot> inFlight = inFlightLoads.putIfAbsent(date, call);
+        if (inFlight != null) {
+            logger.debug("Joining in-flight rate load for {}", date);
+            return inFlight.join();
+        }
+
+        try {
+            RateSnapshot loaded = loadedSnapshotFor(date);
+            if (loaded == null) {
+                loaded = loadSnapshot(date);
+                publishSnapshot(loaded);
+            }
+            call.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(date, call);
+        }
+    }
+
+    private RateSnapshot loadedSnapshotFor(LocalDate date) {
+        RateSnapshot current = snapshot.get();
+        if (current != null && current.isFor(date)) {
+            return current;
+        }
+        RateSnapshot staged = pendingSnapshot.get();
+        if (staged != null && staged.isFor(date)) {
+            return staged;
+        }
+        return null;
+    }
 
-        HashMap<String, Double> storedRates = fetchRatesFromDatabase(todayDate);
-        if (storedRates == null || storedRates.isEmpty()) {
-            logger.info("No cached rates found for {}. Fetching from API.", todayDate);
-            storedRates = fetchAndStoreRatesInDatabase(todayDate);
+    private void publishSnapshot(RateSnapshot loaded) {
+        if (loaded.getRates().isEmpty()) {
+            return;
+        }
+        if (loaded.getDate().isAfter(LocalDate.now())) {
+            pendingSnapshot.set(loaded);
         } else {
+            installSnapshot(loaded);
+        }
+    }
+
+    private RateSnapshot loadSnapshot(LocalDate date) {
+        logger.info("Loading currency rate snapshot for date: {}", date);
+
+        Map<String, Double> storedRates = fetchRatesFromDatabase(date);
+        if (storedRates != null && !storedRates.isEmpty()) {
             logger.info("Loaded {} currency rates from database.", storedRates.size());
+            return new RateSnapshot(date, snapshotVersion.incrementAndGet(), storedRates);
         }
 
-        return storedRates;
+        logger.info("No cached rates found for {}. Fetching from API.", date);
+        return toSnapshot(date, fetchAndStoreRatesInDatabase(date, null));
+    }
+
+    private RateSnapshot toSnapshot(LocalDate date, RateApiClient.Response response) {
+        if (response == null || response.getPayload() == null) {
+            return new RateSnapshot(date, snapshotVersion.incrementAndGet(), Map.of());
+        }
+        return new RateSnapshot(date, snapshotVersion.incrementAndGet(),
+                response.getPayload().toMap(), response.getEtag(), response.getLastModified());
+    }
+
+    private void installSnapshot(RateSnapshot next) {
+        RateSnapshot current;
+        do {
+            current = snapshot.get();
+            if (current == next || (current != null && current.getDate().isAfter(next.getDate()))) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, next));
+        logger.info("Installed rate snapshot v{} for {} with {} currencies",
+                next.getVersion(), next.getDate(), next.getRates().size());
+        eventPublisher.publishEvent(new RateSnapshotEvent(current, next));
     }
 
     public double calculateRate(String fromCurrency, String toCurrency) {
-        logger.info("Calculating rate from {} to {}", fromCurrency, toCurrency);
-        HashMap<String, Double> rates = getRates();
+        logger.atDebug().addKeyValue("from", fromCurrency).addKeyValue("to", toCurrency).log("Calculating rate");
+        return getSnapshot().getCrossRates().rate(fromCurrency, toCurrency);
+    }
+
+    public CurrencyBatchResponse convertBatch(List<CurrencyRequest> requests) {
+        return convertBatch(requests, getSnapshot());
+    }
 
-        if ("usd".equals(fromCurrency)) {
-            return rates.get(toCurrency);
+    public CurrencyBatchResponse convertBatch(List<CurrencyRequest> requests, RateSnapshot rates) {
+        CrossRateMatrix crossRates = rates.getCrossRates();
+        List<CurrencyBatchResult> results = new ArrayList<>(requests.size());
+        int failed = 0;
+
+        for (CurrencyRequest request : requests) {
+            if (request == null || request.getFromCurrency() == null || request.getToCurrency() == null) {
+                results.add(CurrencyBatchResult.error(
+                        request == null ? null : request.getFromCurrency(),
+                        request == null ? null : request.getToCurrency(),
+                        "Both 'fromCurrency' and 'toCurrency' are required."));
+                failed++;
+                continue;
+            }
+
+            String fromCurrency = request.getFromCurrency().toLowerCase();
+            String toCurrency = request.getToCurrency().toLowerCase();
+            double rate = crossRates.rate(fromCurrency, toCurrency);
+            if (rate < 0) {
+                results.add(CurrencyBatchResult.error(fromCurrency, toCurrency,
+                        "Invalid currency pair: '" + fromCurrency + "' to '" + toCurrency + "'."));
+                failed++;
+                continue;
+            }
+            results.add(new CurrencyBatchResult(fromCurrency, toCurrency, rate, request.getAmount()));
         }
-        return rates.get(toCurrency) / rates.get(fromCurrency);
+
+        if (logger.isInfoEnabled() && batchLogSampler.sample()) {
+            logger.atInfo().addKeyValue("pairs", requests.size())
+                    .addKeyValue("failed", failed)
+                    .addKeyValue("date", rates.getDate())
+                    .addKeyValue("skipped", batchLogSampler.drainSkipped())
+                    .log("Exchange rate batch converted");
+        }
+        return new CurrencyBatchResponse(rates.getDate().toString(), results);
     }
 
-    private HashMap<String, Double> fetchRatesFromDatabase(String date) {
+    @Transactional(readOnly = true)
+    public void writeHistory(LocalDate from, LocalDate to, String currency, OutputStream out) throws IOException {
+        logger.atDebug().addKeyValue("from", from)
+                .addKeyValue("to", to)
+                .addKeyValue("currency", currency == null ? "all" : currency)
+                .log("Streaming rate history");
+
+        try (Stream<CurrencyRate> history = currency == null
+                ? currencyRateRepository.streamByDateBetween(from, to)
+                : currencyRateRepository.streamByCurrencyAndDateBetween(currency.toUpperCase(), from, to);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+
+            generator.writeStartArray();
+            Iterator<CurrencyRate> rows = history.iterator();
+            while (rows.hasNext()) {
+                CurrencyRate rate = rows.next();
+                generator.writeStartObject();
+                generator.writeStringField("date", rate.getDate().toString());
+                generator.writeStringField("currency", rate.getCurrencyCode().toLowerCase());
+                generator.writeNumberField("rate", rate.getRate());
+                generator.writeEndObject();
+                entityManager.detach(rate);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private HashMap<String, Double> fetchRatesFromDatabase(LocalDate date) {
         logger.debug("Querying database for rates on {}", date);
         HashMap<String, Double> rates = new HashMap<>();
         List<CurrencyRate> currencyRates = currencyRateRepository.findByDate(date);
@@ -73,72 +376,47 @@ public class CurrencyService {
         return rates;
     }
 
-    @Transactional
-    private HashMap<String, Double> fetchAndStoreRatesInDatabase(String todayDate) {
-        logger.info("Fetching rates from external API for date: {}", todayDate);
-        HashMap<String, Double> currencyRates = new HashMap<>();
+    private RateApiClient.Response fetchAndStoreRatesInDatabase(LocalDate date, RateSnapshot previous) {
+        logger.info("Fetching rates from external API for date: {}", date);
 
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            String apiUrl = String.format(API, todayDate);
+            String apiUrl = String.format(this.apiUrl, date);
             logger.debug("Constructed API URL: {}", apiUrl);
-            String jsonResponse = fetchJsonFromApi(apiUrl);
-
-            JsonObject jsonObject = gson.fromJson(jsonResponse, JsonObject.class);
-            JsonObject rates = jsonObject.getAsJsonObject("usd");
-
-            if (rates == null) {
-                logger.warn("No 'usd' object found in API response");
-                return null;
-            }
-
-            currencyRates = gson.fromJson(rates, new TypeToken<HashMap<String, Double>>() {}.getType());
-
-            List<CurrencyRate> existingRates = currencyRateRepository.findByDate(todayDate);
-            if (!existingRates.isEmpty()) {
-                logger.info("Existing rates found for {}. Deleting old rates before update.", todayDate);
-                currencyRateRepository.deleteAll(existingRates);
-            }
-
-            storeRatesInDatabase(currencyRates, todayDate);
-            logger.info("Stored {} new currency rates for {}", currencyRates.size(), todayDate);
+            RateApiClient.Response response = rateApiClient.fetch(apiUrl,
+                    previous == null ? null : previous.getEtag(),
+                    previous == null ? null : previous.getLastModified());
+            return storeFetchedRates(date, response, sample);
 
         } catch (IOException e) {
-            logger.error("Error fetching rates from API: {}", e.getMessage(), e);
+            recordFetchFailure(sample, e);
         }
 
-        return currencyRates;
+        return null;
     }
 
-    private void storeRatesInDatabase(HashMap<String, Double> rates, String todayDate) {
-        for (Map.Entry<String, Double> entry : rates.entrySet()) {
-            CurrencyRate currencyRate = new CurrencyRate();
-            currencyRate.setCurrencyCode(entry.getKey().toUpperCase());
-            currencyRate.setRate(entry.getValue());
-            currencyRate.setDate(todayDate);
-            currencyRateRepository.save(currencyRate);
-        }
-    }
-
-    private String fetchJsonFromApi(String apiUrl) throws IOException {
-        logger.debug("Sending GET request to {}", apiUrl);
-        StringBuilder result = new StringBuilder();
-        URL url = new URL(apiUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
+    private RateApiClient.Response storeFetchedRates(LocalDate date, RateApiClient.Response response, Timer.Sample sample) {
+        sample.stop(meterRegistry.timer("currency.rates.fetch", "outcome", response.isNotModified() ? "not_modified" : "ok"));
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                result.append(line);
-            }
+        if (response.isNotModified()) {
+            logger.info("Rates for {} not modified upstream", date);
+            return response;
+        }
+        if (response.getPayload() == null) {
+            logger.warn("No 'usd' object found in API response");
+            meterRegistry.counter("currency.rates.fetch.failures", "reason", "empty_payload").increment();
+            return null;
         }
 
-        return result.toString();
+        int stored = currencyRateBatchRepository.replaceRates(date, response.getPayload());
+        logger.info("Stored {} new currency rates for {}", stored, date);
+        return response;
     }
 
-    private String getCurrentDate() {
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
-        return formatter.format(new Date());
+    private void recordFetchFailure(Timer.Sample sample, Throwable e) {
+        sample.stop(meterRegistry.timer("currency.rates.fetch", "outcome", "error"));
+        meterRegistry.counter("currency.rates.fetch.failures", "reason",
+                e instanceof RateApiClient.PayloadException ? "malformed_payload" : "io").increment();
+        logger.error("Error fetching rates from API: {}", e.getMessage(), e);
     }
 }
-
@@ -1,14 +1,15 @@
 package com.example.currencyapp.model;
 
+import java.math.BigDecimal;
 
-public class DepositRequest {
+public final class DepositRequest implements AccountOperation {
     private String username;
-    private double amount;
+    private BigDecimal amount;
     private String deposit;
     
     public DepositRequest() {}
     
-    public DepositRequest(String username, double amount, String deposit) {
+    public DepositRequest(String username, BigDecimal amount, String deposit) {
         this.username = username;
         this.amount = amount;
         this.deposit = deposit;
@@ -22,11 +23,11 @@ public class DepositRequest {
         this.username = username;
     }
     
-    public double getAmount() {
+    public BigDecimal getAmount() {
         return amount;
     }
     
-    public void setAmount(double amount) {
+    public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
     
@@ -37,4 +38,8 @@ public class DepositRequest {
     public void setDeposit(String deposit) {
         this.deposit = deposit;
     }
-}
\ No newline at end of file
+    
+    public boolean hasRequiredFields() {
+        return username != null && amount != null && deposit != null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.currencyapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_pending", columnList = "projected, id"),
+        @Index(name = "idx_ledger_entries_account", columnList = "username, currency_code, projected")
+})
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "currency_code", nullable = false)
+    private String currencyCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 16)
+    private LedgerEntryType type;
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    private Double rate;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private boolean projected;
+
+    public LedgerEntry() {}
+
+    public LedgerEntry(String username, String currencyCode, LedgerEntryType type, long amountMinor, Double rate) {
+        this.username = username;
+        this.currencyCode = currencyCode;
+        this.type = type;
+        this.amountMinor = amountMinor;
+        this.rate = rate;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public LedgerEntryType getType() {
+        return type;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isProjected() {
+        return projected;
+    }
+
+    public void setProjected(boolean projected) {
+        this.projected = projected;
+    }
+}
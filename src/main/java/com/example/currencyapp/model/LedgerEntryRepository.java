@@ -0,0 +1,40 @@
+package com.example.currencyapp.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    List<LedgerEntry> findByProjectedFalseOrderByIdAsc(Pageable pageable);
+
+    List<LedgerEntry> findByUsernameOrderByIdAsc(String username);
+
+    List<LedgerEntry> findByUsernameAndCurrencyCodeAndProjectedFalse(String username, String currencyCode);
+
+    @Query("SELECT e.id FROM LedgerEntry e WHERE e.id IN :ids AND e.projected = false")
+    List<Long> findPendingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(SUM(e.amountMinor), 0) FROM LedgerEntry e " +
+            "WHERE e.username = :username AND e.currencyCode = :currencyCode AND e.projected = false")
+    long sumPending(@Param("username") String username, @Param("currencyCode") String currencyCode);
+
+    @Query("SELECT e.currencyCode, SUM(e.amountMinor) FROM LedgerEntry e " +
+            "WHERE e.username = :username AND e.projected = false GROUP BY e.currencyCode")
+    List<Object[]> sumPendingByCurrency(@Param("username") String username);
+
+    @Query("SELECT e.username, e.currencyCode, SUM(e.amountMinor) FROM LedgerEntry e " +
+            "WHERE e.username IN :usernames AND e.projected = false GROUP BY e.username, e.currencyCode")
+    List<Object[]> sumPendingByAccount(@Param("usernames") Collection<String> usernames);
+
+    @Modifying
+    @Query("UPDATE LedgerEntry e SET e.projected = true WHERE e.id IN :ids")
+    int markProjected(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.example.currencyapp.model;
+
+public enum LedgerEntryType {
+    DEPOSIT,
+    TRANSFER_OUT,
+    TRANSFER_IN,
+    ADJUSTMENT,
+    CLOSE
+}
@@ -0,0 +1,32 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LedgerProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerProjector.class);
+
+    private final LedgerService ledgerService;
+
+    @Autowired
+    public LedgerProjector(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.ledger.projection-interval:1000}")
+    public void projectLedger() {
+        try {
+            int projected;
+            do {
+                projected = ledgerService.projectPending();
+            } while (projected >= ledgerService.getProjectionBatchSize());
+        } catch (RuntimeException e) {
+            logger.error("Ledger projection failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Service
+public class LedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final UserAccountRepository userAccountRepository;
+
+    @Value("${accounts.ledger.projection-batch-size:1000}")
+    private int projectionBatchSize = 1000;
+
+    @Autowired
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository, UserAccountRepository userAccountRepository) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    public LedgerEntry record(String username, String currencyCode, LedgerEntryType type, long amountMinor, Double rate) {
+        return ledgerEntryRepository.save(new LedgerEntry(username, currencyCode, type, amountMinor, rate));
+    }
+
+    public long pendingBalance(String username, String currencyCode) {
+        return ledgerEntryRepository.sumPending(username, currencyCode);
+    }
+
+    public Map<String, Long> pendingBalances(String username) {
+        Map<String, Long> pending = new HashMap<>();
+        for (Object[] row : ledgerEntryRepository.sumPendingByCurrency(username)) {
+            pending.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return pending;
+    }
+
+    public Map<UserAccountId, Long> pendingBalances(Collection<String> usernames) {
+        Map<UserAccountId, Long> pending = new HashMap<>();
+        for (Object[] row : ledgerEntryRepository.sumPendingByAccount(usernames)) {
+            pending.put(new UserAccountId((String) row[0], (String) row[1]), ((Number) row[2]).longValue());
+        }
+        return pending;
+    }
+
+    public List<LedgerEntry> recordAll(List<LedgerEntry> entries) {
+        return ledgerEntryRepository.saveAll(entries);
+    }
+
+    public long close(UserAccount account) {
+        long balance = account.getBalanceMinor();
+        for (LedgerEntry entry : ledgerEntryRepository
+                .findByUsernameAndCurrencyCodeAndProjectedFalse(account.getUsername(), account.getCurrencyCode())) {
+            balance += entry.getAmountMinor();
+            entry.setProjected(true);
+        }
+
+        LedgerEntry closing = new LedgerEntry(account.getUsername(), account.getCurrencyCode(),
+                LedgerEntryType.CLOSE, -balance, null);
+        closing.setProjected(true);
+        ledgerEntryRepository.save(closing);
+        return balance;
+    }
+
+    @Transactional
+    public int projectPending() {
+        List<LedgerEntry> batch = ledgerEntryRepository
+                .findByProjectedFalseOrderByIdAsc(PageRequest.of(0, projectionBatchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Set<String>> accountsByUser = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (LedgerEntry entry : batch) {
+            accountsByUser.computeIfAbsent(entry.getUsername(), username -> new TreeSet<>()).add(entry.getCurrencyCode());
+            ids.add(entry.getId());
+        }
+
+        Map<UserAccountId, UserAccount> accounts = new HashMap<>();
+        for (Map.Entry<String, Set<String>> user : accountsByUser.entrySet()) {
+            for (UserAccount account : userAccountRepository.findAllForUpdate(user.getKey(), user.getValue())) {
+                accounts.put(new UserAccountId(account.getUsername(), account.getCurrencyCode()), account);
+            }
+        }
+
+        Set<Long> stillPending = new HashSet<>(ledgerEntryRepository.findPendingIds(ids));
+        Map<UserAccountId, Long> deltas = new HashMap<>();
+        List<Long> projected = new ArrayList<>(stillPending.size());
+        for (LedgerEntry entry : batch) {
+            if (stillPending.contains(entry.getId())) {
+                deltas.merge(new UserAccountId(entry.getUsername(), entry.getCurrencyCode()), entry.getAmountMinor(), Long::sum);
+                projected.add(entry.getId());
+            }
+        }
+
+        for (Map.Entry<UserAccountId, Long> delta : deltas.entrySet()) {
+            UserAccountId id = delta.getKey();
+            UserAccount account = accounts.get(id);
+            if (account == null) {
+                account = userAccountRepository.save(new UserAccount(id.getUsername(), id.getCurrencyCode(), 0L));
+            }
+            account.setBalanceMinor(account.getBalanceMinor() + delta.getValue());
+        }
+
+        if (!projected.isEmpty()) {
+            ledgerEntryRepository.markProjected(projected);
+        }
+        logger.debug("Projected {} ledger entries onto {} accounts", projected.size(), deltas.size());
+        return batch.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> replay(String username) {
+        Map<String, Long> balances = new TreeMap<>();
+        for (LedgerEntry entry : ledgerEntryRepository.findByUsernameOrderByIdAsc(username)) {
+            if (entry.getType() == LedgerEntryType.CLOSE) {
+                balances.remove(entry.getCurrencyCode());
+            } else {
+                balances.merge(entry.getCurrencyCode(), entry.getAmountMinor(), Long::sum);
+            }
+        }
+        return balances;
+    }
+
+    public int getProjectionBatchSize() {
+        return projectionBatchSize;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.currencyapp.model;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LogSampler {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSampleAt;
+    private final LongAdder skipped = new LongAdder();
+
+    public LogSampler(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextSampleAt = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean sample() {
+        long now = System.nanoTime();
+        long next = nextSampleAt.get();
+        if (now - next >= 0 && nextSampleAt.compareAndSet(next, now + intervalNanos)) {
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    public long drainSkipped() {
+        return skipped.sumThenReset();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.currencyapp.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MinorUnits {
+
+    private static final int UNKNOWN_CURRENCY_SCALE = 8;
+    private static final int MAX_MINOR_DIGITS = 18;
+    private static final double FAST_PATH_LIMIT = 1e9;
+    private static final double FAST_PATH_MARGIN = 1e-6;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    private static final ConcurrentHashMap<String, Integer> scales = new ConcurrentHashMap<>();
+
+    private MinorUnits() {}
+
+    public static int scale(String currencyCode) {
+        Integer scale = scales.get(currencyCode);
+        return scale != null ? scale : scales.computeIfAbsent(currencyCode, MinorUnits::lookupScale);
+    }
+
+    private static int lookupScale(String currencyCode) {
+        try {
+            int digits = Currency.getInstance(currencyCode.toUpperCase()).getDefaultFractionDigits();
+            return digits < 0 ? UNKNOWN_CURRENCY_SCALE : digits;
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_CURRENCY_SCALE;
+        }
+    }
+
+    public static boolean isValidAmount(BigDecimal amount, String currencyCode) {
+        return amount != null && amount.signum() > 0 && fits(amount, currencyCode);
+    }
+
+    public static boolean isValidBalance(BigDecimal amount, String currencyCode) {
+        return amount != null && amount.signum() >= 0 && fits(amount, currencyCode);
+    }
+
+    private static boolean fits(BigDecimal amount, String currencyCode) {
+        int scale = scale(currencyCode);
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= scale && stripped.precision() - stripped.scale() + scale <= MAX_MINOR_DIGITS;
+    }
+
+    public static long toMinor(BigDecimal amount, String currencyCode, RoundingMode rounding) {
+        return amount.setScale(scale(currencyCode), rounding).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor, String currencyCode) {
+        return BigDecimal.valueOf(minor, scale(currencyCode));
+    }
+
+    public static long convert(long minor, String fromCurrency, String toCurrency, double rate, RoundingMode rounding) {
+        int shift = scale(toCurrency) - scale(fromCurrency);
+        double converted = shift >= 0 ? minor * rate * POWERS_OF_TEN[shift] : minor * rate / POWERS_OF_TEN[-shift];
+        if (Math.abs(converted) < FAST_PATH_LIMIT) {
+            long rounded = roundAwayFromBoundary(converted, rounding);
+            if (rounded != Long.MIN_VALUE) {
+                return rounded;
+            }
+        }
+        return BigDecimal.valueOf(minor)
+                .multiply(BigDecimal.valueOf(rate))
+                .movePointRight(shift)
+                .setScale(0, rounding)
+                .longValueExact();
+    }
+
+    private static long roundAwayFromBoundary(double value, RoundingMode rounding) {
+        double floor = Math.floor(value);
+        double fraction = value - floor;
+        boolean nearInteger = fraction < FAST_PATH_MARGIN || fraction > 1 - FAST_PATH_MARGIN;
+        boolean nearHalf = Math.abs(fraction - 0.5) < FAST_PATH_MARGIN;
+
+        switch (rounding) {
+            case HALF_EVEN:
+            case HALF_UP:
+            case HALF_DOWN:
+                return nearHalf ? Long.MIN_VALUE : (long) (fraction > 0.5 ? floor + 1 : floor);
+            case FLOOR:
+                return nearInteger ? Long.MIN_VALUE : (long) floor;
+            case CEILING:
+                return nearInteger ? Long.MIN_VALUE : (long) floor + 1;
+            case DOWN:
+                return nearInteger ? Long.MIN_VALUE : (long) (value > 0 ? floor : floor + 1);
+            case UP:
+                return nearInteger ? Long.MIN_VALUE : (long) (value > 0 ? floor + 1 : floor);
+            default:
+                return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.currencyapp.model;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+@Component
+public class PortfolioCache {
+
+    private final ConcurrentHashMap<String, Entry> portfolios = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${accounts.portfolio-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    @Value("${accounts.portfolio-cache.ttl:30s}")
+    private Duration ttl = Duration.ofSeconds(30);
+
+    public Map<String, BigDecimal> get(String username, Function<String, Map<String, BigDecimal>> loader) {
+        Entry current = portfolios.get(username);
+        if (current != null && current.portfolio != null) {
+            if (System.nanoTime() - current.loadedAt < ttl.toNanos()) {
+                hits.increment();
+                return current.portfolio;
+            }
+            evictions.increment();
+        }
+        misses.increment();
+
+        Entry loaded = new Entry(Map.copyOf(loader.apply(username)));
+        boolean installed = current == null
+                ? portfolios.putIfAbsent(username, loaded) == null
+                : portfolios.replace(username, current, loaded);
+        if (installed) {
+            evictIfFull();
+        }
+        return loaded.portfolio;
+    }
+
+    public void invalidate(String username) {
+        portfolios.put(username, new Entry(null));
+        evictIfFull();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return portfolios.size();
+    }
+
+    private void evictIfFull() {
+        Iterator<Entry> entries = portfolios.values().iterator();
+        while (portfolios.size() > maxSize && entries.hasNext()) {
+            Entry evicted = entries.next();
+            entries.remove();
+            if (evicted.portfolio != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Map<String, BigDecimal> portfolio;
+        private final long loadedAt = System.nanoTime();
+
+        private Entry(Map<String, BigDecimal> portfolio) {
+            this.portfolio = portfolio;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.currencyapp.model;
+
+import com.google.gson.stream.MalformedJsonException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.ZipException;
+
+@Component
+public class RateApiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateApiClient.class);
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+
+    @Autowired
+    public RateApiClient(@Value("${currency.api.connect-timeout:2s}") Duration connectTimeout,
+                         @Value("${currency.api.request-timeout:5s}") Duration requestTimeout,
+                         @Value("${currency.api.max-retries:3}") int maxRetries,
+                         @Value("${currency.api.initial-backoff:200ms}") Duration initialBackoff) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Response fetch(String url, String etag, String lastModified) throws IOException {
+        try {
+            return fetchAsync(url, etag, lastModified, Runnable::run).join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public CompletableFuture<Response> fetchAsync(String url, String etag, String lastModified, Executor bodyExecutor) {
+        return attempt(url, etag, lastModified, bodyExecutor, 0);
+    }
+
+    private CompletableFuture<Response> attempt(String url, String etag, String lastModified, Executor bodyExecutor,
+                                                int attempt) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+
+        logger.debug("Sending GET request to {} (attempt {})", url, attempt + 1);
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(this::toResponse, bodyExecutor)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (attempt >= maxRetries || !isRetryable(cause)) {
+                        return CompletableFuture.<Response>failedFuture(cause);
+                    }
+                    long delay = initialBackoff.toMillis() << attempt;
+                    logger.warn("Rate fetch from {} failed ({}), retrying in {} ms", url, cause.toString(), delay);
+                    Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> attempt, delayed)
+                            .thenCompose(previous -> attempt(url, etag, lastModified, bodyExecutor, previous + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private Response toResponse(HttpResponse<InputStream> response) {
+        int status = response.statusCode();
+        try (InputStream body = response.body()) {
+            if (status == 304) {
+                return new Response(true, null,
+                        header(response, "ETag", "If-None-Match"),
+                        header(response, "Last-Modified", "If-Modified-Since"));
+            }
+            if (status != 200) {
+                throw new UncheckedIOException(new StatusException(status));
+            }
+            boolean gzipped = response.headers().firstValue("Content-Encoding")
+                    .map("gzip"::equalsIgnoreCase)
+                    .orElse(false);
+            RatePayload payload;
+            try {
+                payload = RatePayloadParser.parse(body, gzipped);
+            } catch (MalformedJsonException | ZipException | IllegalStateException | NumberFormatException e) {
+                throw new PayloadException(e);
+            }
+            return new Response(false, payload,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String header(HttpResponse<?> response, String name, String requestName) {
+        return response.headers().firstValue(name)
+                .orElse(response.request().headers().firstValue(requestName).orElse(null));
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof PayloadException) {
+            return false;
+        }
+        if (error instanceof StatusException status) {
+            return status.getStatus() >= 500 || status.getStatus() == 429;
+        }
+        return error instanceof HttpTimeoutException || error instanceof IOException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    public static class Response {
+
+        private final boolean notModified;
+        private final RatePayload payload;
+        private final String etag;
+        private final String lastModified;
+
+        Response(boolean notModified, RatePayload payload, String etag, String lastModified) {
+            this.notModified = notModified;
+            this.payload = payload;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        public RatePayload getPayload() {
+            return payload;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    public static class StatusException extends IOException {
+
+        private final int status;
+
+        public StatusException(int status) {
+            super("Unexpected HTTP status " + status);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    public static class PayloadException extends IOException {
+
+        public PayloadException(Throwable cause) {
+            super("Malformed rate payload: " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.currencyapp.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class RatePayload {
+
+    private final String[] currencies;
+    private final double[] rates;
+    private final int size;
+
+    RatePayload(String[] currencies, double[] rates, int size) {
+        this.currencies = currencies;
+        this.rates = rates;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String currencyAt(int index) {
+        return currencies[index];
+    }
+
+    public double rateAt(int index) {
+        return rates[index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(currencies[i], rates[i]);
+        }
+        return map;
+    }
+
+    static final class Builder {
+
+        private String[] currencies = new String[384];
+        private double[] rates = new double[384];
+        private int size;
+
+        void add(String currency, double rate) {
+            if (size == currencies.length) {
+                currencies = Arrays.copyOf(currencies, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            currencies[size] = currency;
+            rates[size] = rate;
+            size++;
+        }
+
+        RatePayload build() {
+            return new RatePayload(currencies, rates, size);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.currencyapp.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public final class RatePayloadParser {
+
+    private static final String BASE_CURRENCY = "usd";
+
+    private RatePayloadParser() {
+    }
+
+    public static RatePayload parse(InputStream in, boolean gzipped) throws IOException {
+        InputStream source = gzipped ? new GZIPInputStream(in, 8192) : new BufferedInputStream(in, 8192);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (BASE_CURRENCY.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    return readRates(reader);
+                }
+                reader.skipValue();
+            }
+            reader.endObject();
+        }
+        return null;
+    }
+
+    private static RatePayload readRates(JsonReader reader) throws IOException {
+        RatePayload.Builder builder = new RatePayload.Builder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String currency = reader.nextName();
+            if (reader.peek() == JsonToken.NUMBER) {
+                builder.add(currency, reader.nextDouble());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return builder.build();
+    }
+}
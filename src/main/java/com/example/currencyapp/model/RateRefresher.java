@@ -0,0 +1,43 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@Component
+public class RateRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateRefresher.class);
+
+    private final CurrencyService currencyService;
+
+    @Autowired
+    public RateRefresher(CurrencyService currencyService) {
+        this.currencyService = currencyService;
+    }
+
+    @Scheduled(cron = "${currency.refresh.cron:0 */10 0-2 * * *}", zone = "UTC")
+    public void prefetchPublishedDay() {
+        LocalDate published = LocalDate.now(ZoneOffset.UTC);
+        logger.info("Prefetching currency rates for {}", published);
+        try {
+            currencyService.prefetchRates(published);
+        } catch (RuntimeException e) {
+            logger.error("Prefetch of rates for {} failed: {}", published, e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${currency.revalidate.cron:0 5 * * * *}", zone = "UTC")
+    public void revalidateToday() {
+        try {
+            currencyService.revalidateRates();
+        } catch (RuntimeException e) {
+            logger.error("Revalidation of today's rates failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.currencyapp.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class RateSnapshot {
+
+    private final LocalDate date;
+    private final long version;
+    private final Map<String, Double> rates;
+    private final CrossRateMatrix crossRates;
+    private final String etag;
+    private final String lastModified;
+
+    public RateSnapshot(LocalDate date, long version, Map<String, Double> rates) {
+        this(date, version, rates, null, null);
+    }
+
+    public RateSnapshot(LocalDate date, long version, Map<String, Double> rates, String etag, String lastModified) {
+        this.date = date;
+        this.version = version;
+        this.rates = Collections.unmodifiableMap(new HashMap<>(rates));
+        this.crossRates = new CrossRateMatrix(this.rates);
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public CrossRateMatrix getCrossRates() {
+        return crossRates;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public boolean isFor(LocalDate day) {
+        return date.equals(day);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.currencyapp.model;
+
+public class RateSnapshotEvent {
+
+    private final RateSnapshot previous;
+    private final RateSnapshot current;
+
+    public RateSnapshotEvent(RateSnapshot previous, RateSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public RateSnapshot getPrevious() {
+        return previous;
+    }
+
+    public RateSnapshot getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class RateStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamService.class);
+    private static final long NOTHING_SENT = -1;
+
+    private final CurrencyService currencyService;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolTaskExecutor dispatch = new ThreadPoolTaskExecutor();
+
+    @Value("${currency.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000L;
+
+    @Value("${currency.stream.max-backlog:16}")
+    private int maxBacklog = 16;
+
+    @Autowired
+    public RateStreamService(CurrencyService currencyService,
+                             @Value("${currency.stream.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.currencyService = currencyService;
+        dispatch.setCorePoolSize(dispatchThreads);
+        dispatch.setMaxPoolSize(dispatchThreads);
+        dispatch.setThreadNamePrefix("rate-stream-dispatch-");
+        dispatch.setDaemon(true);
+        dispatch.setVirtualThreads(virtualThreads);
+        dispatch.initialize();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        subscribers.add(subscriber);
+        RateSnapshot snapshot = currencyService.getSnapshot();
+        subscriber.enqueue(() -> {
+            RateSnapshot current = currencyService.getCurrentSnapshot();
+            subscriber.sendSnapshot(current != null ? current : snapshot);
+        });
+        logger.debug("Rate stream subscriber added, {} connected", subscribers.size());
+        return emitter;
+    }
+
+    @EventListener
+    public void onSnapshot(RateSnapshotEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        RateSnapshot previous = event.getPrevious();
+        RateSnapshot current = event.getCurrent();
+        Map<String, Object> delta = delta(previous, current);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(() -> subscriber.sendUpdate(previous, current, delta));
+        }
+        if (delta != null) {
+            logger.info("Publishing {} rate changes for {} to {} subscribers",
+                    ((Map<?, ?>) delta.get("rates")).size(), current.getDate(), subscribers.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${currency.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(subscriber::sendKeepAlive);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatch.shutdown();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private Map<String, Object> delta(RateSnapshot previous, RateSnapshot current) {
+        Map<String, Double> changed = new LinkedHashMap<>();
+        List<String> removed = new ArrayList<>();
+        Map<String, Double> before = previous == null ? Map.of() : previous.getRates();
+
+        for (Map.Entry<String, Double> rate : current.getRates().entrySet()) {
+            if (!Objects.equals(before.get(rate.getKey()), rate.getValue())) {
+                changed.put(rate.getKey(), rate.getValue());
+            }
+        }
+        for (String currency : before.keySet()) {
+            if (!current.getRates().containsKey(currency)) {
+                removed.add(currency);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+        return payload(current, changed, removed);
+    }
+
+    private Map<String, Object> payload(RateSnapshot snapshot, Map<String, Double> rates, List<String> removed) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("date", snapshot.getDate().toString());
+        payload.put("version", snapshot.getVersion());
+        payload.put("rates", rates);
+        if (!removed.isEmpty()) {
+            payload.put("removed", removed);
+        }
+        return payload;
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            logger.debug("Dropping rate stream subscriber: {}", cause.getMessage());
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long sentVersion = NOTHING_SENT;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Runnable task) {
+            if (closed.get()) {
+                return;
+            }
+            if (backlog.incrementAndGet() > maxBacklog) {
+                drop(this, new IOException("Subscriber fell " + maxBacklog + " messages behind"));
+                return;
+            }
+            pending.add(task);
+            if (draining.compareAndSet(false, true)) {
+                dispatch.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Runnable task;
+                while ((task = pending.poll()) != null) {
+                    backlog.decrementAndGet();
+                    if (!closed.get()) {
+                        task.run();
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void sendSnapshot(RateSnapshot snapshot) {
+            if (snapshot.getVersion() > sentVersion
+                    && send("snapshot", snapshot.getVersion(), payload(snapshot, snapshot.getRates(), List.of()))) {
+                sentVersion = snapshot.getVersion();
+            }
+        }
+
+        private void sendUpdate(RateSnapshot previous, RateSnapshot current, Map<String, Object> delta) {
+            if (current.getVersion() <= sentVersion) {
+                return;
+            }
+            if (sentVersion == NOTHING_SENT || previous == null || previous.getVersion() != sentVersion) {
+                sendSnapshot(current);
+            } else if (delta == null || send("delta", current.getVersion(), delta)) {
+                sentVersion = current.getVersion();
+            }
+        }
+
+        private void sendKeepAlive() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                drop(this, e);
+            }
+        }
+
+        private boolean send(String name, long version, Object data) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(name)
+                        .id(Long.toString(version))
+                        .data(data, MediaType.APPLICATION_JSON));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                drop(this, e);
+                return false;
+            }
+        }
+    }
+}
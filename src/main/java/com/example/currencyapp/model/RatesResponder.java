@@ -0,0 +1,131 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class RatesResponder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatesResponder.class);
+    private static final LogSampler ratesLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final Duration REVALIDATION_GRACE = Duration.ofMinutes(1);
+
+    private final ObjectMapper objectMapper;
+    private final CronExpression revalidation;
+    private final AtomicReference<SerializedRates> serializedRates = new AtomicReference<>();
+
+    @Autowired
+    public RatesResponder(ObjectMapper objectMapper,
+                          @Value("${currency.revalidate.cron:0 5 * * * *}") String revalidationCron) {
+        this.objectMapper = objectMapper;
+        this.revalidation = CronExpression.parse(revalidationCron);
+    }
+
+    public ResponseEntity<byte[]> respond(RateSnapshot snapshot, String ifNoneMatch, String ifModifiedSince,
+                                          String acceptEncoding) {
+        if (snapshot == null || snapshot.getRates().isEmpty()) {
+            return unavailable();
+        }
+
+        SerializedRates rates = serializedRates(snapshot);
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds(rates), TimeUnit.SECONDS)
+                .cachePrivate()
+                .mustRevalidate();
+
+        if (rates.isNotModified(ifNoneMatch, ifModifiedSince)) {
+            logger.atDebug().addKeyValue("etag", rates.getEtag()).log("Currency rates not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(rates.getEtag())
+                    .lastModified(rates.getLastModified())
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(rates.getEtag())
+                .lastModified(rates.getLastModified())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (logger.isInfoEnabled() && ratesLogSampler.sample()) {
+            logger.atInfo().addKeyValue("currencies", snapshot.getRates().size())
+                    .addKeyValue("date", snapshot.getDate())
+                    .addKeyValue("skipped", ratesLogSampler.drainSkipped())
+                    .log("Returning currency rates");
+        }
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rates.getGzippedJson());
+        }
+        return response.body(rates.getJson());
+    }
+
+    public ResponseEntity<byte[]> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .cacheControl(CacheControl.noStore())
+                .build();
+    }
+
+    private long maxAgeSeconds(SerializedRates rates) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        ZonedDateTime nextRevalidation = revalidation.next(now.minus(REVALIDATION_GRACE));
+        long untilRevalidation = nextRevalidation == null
+                ? Long.MAX_VALUE
+                : Math.max(0, Duration.between(now, nextRevalidation).getSeconds());
+        return Math.min(rates.secondsUntilRollover(), untilRevalidation);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            if (params[0].trim().toLowerCase(Locale.ROOT).equals("gzip")) {
+                return quality(params) > 0;
+            }
+        }
+        return false;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private SerializedRates serializedRates(RateSnapshot snapshot) {
+        SerializedRates cached = serializedRates.get();
+        if (cached != null && cached.isFor(snapshot)) {
+            return cached;
+        }
+        SerializedRates serialized = SerializedRates.of(snapshot, objectMapper);
+        serializedRates.set(serialized);
+        return serialized;
+    }
+}
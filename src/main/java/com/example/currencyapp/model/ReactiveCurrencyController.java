@@ -0,0 +1,107 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+
+@RestController
+@RequestMapping("/currencies")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCurrencyController.class);
+    private static final LogSampler quoteLogSampler = new LogSampler(Duration.ofSeconds(1));
+
+    private final ReactiveRateService reactiveRateService;
+    private final CurrencyService currencyService;
+    private final RatesResponder ratesResponder;
+
+    @Value("${currency.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
+    @Autowired
+    public ReactiveCurrencyController(ReactiveRateService reactiveRateService, CurrencyService currencyService,
+                                      RatesResponder ratesResponder) {
+        this.reactiveRateService = reactiveRateService;
+        this.currencyService = currencyService;
+        this.ratesResponder = ratesResponder;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getCurrencies(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Request to get all currencies rates.");
+        return reactiveRateService.getSnapshot()
+                .map(snapshot -> ratesResponder.respond(snapshot, ifNoneMatch, ifModifiedSince, acceptEncoding))
+                .defaultIfEmpty(ratesResponder.unavailable());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> getExchangeRate(@RequestBody CurrencyRequest request) {
+        if (request.getFromCurrency() == null || request.getToCurrency() == null) {
+            logger.error("Error: 'fromCurrency' or 'toCurrency' is missing in the request.");
+            return Mono.just(error("Both 'fromCurrency' and 'toCurrency' are required."));
+        }
+
+        String fromCurrency = request.getFromCurrency().toLowerCase();
+        String toCurrency = request.getToCurrency().toLowerCase();
+        logger.atDebug().addKeyValue("from", fromCurrency).addKeyValue("to", toCurrency).log("Exchange rate requested");
+
+        return reactiveRateService.getSnapshot()
+                .<ResponseEntity<?>>map(snapshot -> quote(snapshot, fromCurrency, toCurrency))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> getExchangeRates(@RequestBody List<CurrencyRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            logger.error("Error: batch request contains no currency pairs.");
+            return Mono.just(error("At least one currency pair is required."));
+        }
+        if (requests.size() > maxBatchSize) {
+            logger.error("Error: batch of {} currency pairs exceeds the limit of {}.", requests.size(), maxBatchSize);
+            return Mono.just(error("A batch may contain at most " + maxBatchSize + " currency pairs."));
+        }
+
+        logger.atDebug().addKeyValue("pairs", requests.size()).log("Exchange rate batch requested");
+        return reactiveRateService.getSnapshot()
+                .<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok(currencyService.convertBatch(requests, snapshot)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    private static ResponseEntity<?> quote(RateSnapshot snapshot, String fromCurrency, String toCurrency) {
+        double rate = snapshot.getCrossRates().rate(fromCurrency, toCurrency);
+        if (rate < 0) {
+            logger.error("Invalid currency pair: '{}' to '{}'.", fromCurrency, toCurrency);
+            return error("Invalid currency pair: '" + fromCurrency + "' to '" + toCurrency + "'.");
+        }
+
+        if (logger.isInfoEnabled() && quoteLogSampler.sample()) {
+            logger.atInfo().addKeyValue("from", fromCurrency)
+                    .addKeyValue("to", toCurrency)
+                    .addKeyValue("rate", rate)
+                    .addKeyValue("skipped", quoteLogSampler.drainSkipped())
+                    .log("Exchange rate calculated");
+        }
+        return ResponseEntity.ok(new CurrencyResponse(fromCurrency, toCurrency, rate));
+    }
+
+    private static ResponseEntity<?> error(String message) {
+        HashMap<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.badRequest().body(error);
+    }
+}
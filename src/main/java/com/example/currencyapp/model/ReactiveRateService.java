@@ -0,0 +1,80 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRateService.class);
+
+    private final CurrencyService currencyService;
+    private final ConcurrentHashMap<LocalDate, CompletableFuture<RateSnapshot>> inFlightFetches = new ConcurrentHashMap<>();
+    private final Executor blockingWork = runnable -> Schedulers.boundedElastic().schedule(runnable);
+
+    private volatile long retryFetchAfter;
+
+    @Value("${currency.api.fallback-retry:60s}")
+    private Duration fallbackRetry = Duration.ofSeconds(60);
+
+    @Autowired
+    public ReactiveRateService(CurrencyService currencyService) {
+        this.currencyService = currencyService;
+    }
+
+    public Mono<RateSnapshot> getSnapshot() {
+        RateSnapshot loaded = currencyService.getSnapshotIfLoaded();
+        if (loaded != null) {
+            return Mono.just(loaded);
+        }
+
+        if (System.currentTimeMillis() < retryFetchAfter) {
+            return Mono.justOrEmpty(currencyService.getCurrentSnapshot());
+        }
+
+        LocalDate today = LocalDate.now();
+        return Mono.fromFuture(fetchOnce(today), true)
+                .filter(fetched -> !fetched.getRates().isEmpty())
+                .switchIfEmpty(Mono.defer(() -> fallback(today)))
+                .onErrorResume(e -> fallback(today));
+    }
+
+    private CompletableFuture<RateSnapshot> fetchOnce(LocalDate date) {
+        CompletableFuture<RateSnapshot> call = new CompletableFuture<>();
+        CompletableFuture<RateSnapshot> inFlight = inFlightFetches.putIfAbsent(date, call);
+        if (inFlight != null) {
+            logger.debug("Joining in-flight rate fetch for {}", date);
+            return inFlight;
+        }
+
+        currencyService.fetchSnapshotAsync(date, blockingWork).whenComplete((fetched, failure) -> {
+            inFlightFetches.remove(date, call);
+            if (failure != null) {
+                call.completeExceptionally(failure);
+            } else {
+                call.complete(fetched);
+            }
+        });
+        return call;
+    }
+
+    private Mono<RateSnapshot> fallback(LocalDate today) {
+        retryFetchAfter = System.currentTimeMillis() + fallbackRetry.toMillis();
+        logger.warn("No rates fetched for {}, falling back to stored rates", today);
+        return Mono.fromCallable(() -> currencyService.loadStoredSnapshot(today))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.currencyapp.model;
+
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+
+import java.net.URI;
+
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        RedirectServerLogoutSuccessHandler logoutSuccessHandler = new RedirectServerLogoutSuccessHandler();
+        logoutSuccessHandler.setLogoutSuccessUrl(URI.create("/"));
+
+        return http
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/", "/error", "/webjars/**").permitAll()
+                .matchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                .pathMatchers(HttpMethod.GET, "/currencies").authenticated()
+                .pathMatchers(HttpMethod.POST, "/currencies").authenticated()
+                .pathMatchers(HttpMethod.POST, "/currencies/batch").authenticated()
+                .anyExchange().authenticated()
+            )
+            .csrf(csrf -> csrf.disable())
+            .oauth2Login(Customizer.withDefaults())
+            .logout(logout -> logout.logoutSuccessHandler(logoutSuccessHandler))
+            .build();
+    }
+}
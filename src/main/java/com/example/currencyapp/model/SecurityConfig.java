@@ -2,6 +2,8 @@ package com.example.currencyapp.model;
 
 
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,6 +15,7 @@ import org.springframework.http.HttpMethod;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     @Bean
@@ -20,15 +23,23 @@ public class SecurityConfig {
         http
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/error", "/webjars/**").permitAll()
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                 .requestMatchers(HttpMethod.POST, "/accounts").authenticated()
+                .requestMatchers(HttpMethod.POST, "/accounts/batch").authenticated()
                 .requestMatchers(HttpMethod.DELETE, "/accounts").authenticated()
                 .requestMatchers(HttpMethod.PUT, "/accounts").authenticated()
                 .requestMatchers(HttpMethod.GET, "/accounts").authenticated()
+                .requestMatchers(HttpMethod.GET, "/accounts/valuation").authenticated()
+                .requestMatchers(HttpMethod.GET, "/accounts/valuation/all").authenticated()
                 .requestMatchers(HttpMethod.GET, "/users").authenticated()
                 .requestMatchers(HttpMethod.POST, "/users").authenticated()
+                .requestMatchers(HttpMethod.POST, "/users/batch").authenticated()
 
                 .requestMatchers(HttpMethod.GET, "/currencies").authenticated()
                 .requestMatchers(HttpMethod.POST, "/currencies").authenticated()
+                .requestMatchers(HttpMethod.POST, "/currencies/batch").authenticated()
+                .requestMatchers(HttpMethod.GET, "/currencies/history").authenticated()
+                .requestMatchers(HttpMethod.GET, "/currencies/stream").authenticated()
                 .anyRequest().authenticated()
             )
             .csrf(csrf -> csrf.disable())
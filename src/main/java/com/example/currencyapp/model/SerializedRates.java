@@ -0,0 +1,117 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+public final class SerializedRates {
+
+    private final RateSnapshot snapshot;
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final String etag;
+    private final long lastModified;
+
+    private SerializedRates(RateSnapshot snapshot, byte[] json, byte[] gzippedJson, String etag, long lastModified) {
+        this.snapshot = snapshot;
+        this.json = json;
+        this.gzippedJson = gzippedJson;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static SerializedRates of(RateSnapshot snapshot, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(snapshot.getRates());
+            String etag = "\"" + snapshot.getDate() + "-" + digest(json) + "\"";
+            long lastModified = snapshot.getDate().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new SerializedRates(snapshot, json, gzip(json), etag, lastModified);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String digest(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    public boolean isFor(RateSnapshot other) {
+        return snapshot == other;
+    }
+
+    public boolean isNotModified(String ifNoneMatch, String ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+                return lastModified / 1000 <= since;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public long secondsUntilRollover() {
+        ZonedDateTime nextDay = snapshot.getDate().plusDays(1).atStartOfDay(ZoneId.systemDefault());
+        return Math.max(0, Duration.between(ZonedDateTime.now(), nextDay).getSeconds());
+    }
+
+    public RateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzippedJson() {
+        return gzippedJson;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
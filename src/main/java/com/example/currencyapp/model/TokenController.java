@@ -21,7 +21,7 @@ public class TokenController {
         @RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient authorizedClient,
         @AuthenticationPrincipal OAuth2User principal
     ) {
-        logger.info("Request received to get the access token.");
+        logger.debug("Access token requested");
 
         if (authorizedClient == null || authorizedClient.getAccessToken() == null) {
             logger.error("No authorized client or access token found for the user: {}", principal.getName());
@@ -29,7 +29,7 @@ public class TokenController {
         }
 
         String accessToken = authorizedClient.getAccessToken().getTokenValue();
-        logger.info("Returning access token for user: {}", principal.getName());
+        logger.atDebug().addKeyValue("user", principal.getName()).log("Returning access token");
 
         return Map.of(
             "accessToken", accessToken
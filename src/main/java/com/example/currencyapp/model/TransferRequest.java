@@ -1,15 +1,16 @@
 package com.example.currencyapp.model;
 
+import java.math.BigDecimal;
 
-public class TransferRequest {
+public final class TransferRequest implements AccountOperation {
     private String username;
-    private double amount;
+    private BigDecimal amount;
     private String fromAccount;
     private String toAccount;
     
     public TransferRequest() {}
     
-    public TransferRequest(String username, double amount, String fromAccount, String toAccount) {
+    public TransferRequest(String username, BigDecimal amount, String fromAccount, String toAccount) {
         this.username = username;
         this.amount = amount;
         this.fromAccount = fromAccount;
@@ -24,11 +25,11 @@ public class TransferRequest {
         this.username = username;
     }
     
-    public double getAmount() {
+    public BigDecimal getAmount() {
         return amount;
     }
     
-    public void setAmount(double amount) {
+    public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
     
@@ -47,4 +48,8 @@ public class TransferRequest {
     public void setToAccount(String toAccount) {
         this.toAccount = toAccount;
     }
-}
\ No newline at end of file
+    
+    public boolean hasRequiredFields() {
+        return username != null && amount != null && fromAccount != null && toAccount != null;
+    }
+}
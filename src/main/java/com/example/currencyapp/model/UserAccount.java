@@ -2,11 +2,14 @@ package com.example.currencyapp.model;
 
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
 
 @Entity
 @Table(name = "user_accounts")
 @IdClass(UserAccountId.class)
-public class UserAccount {
+public class UserAccount implements Persistable<UserAccountId> {
     
     @Id
     private String username;
@@ -15,14 +18,18 @@ public class UserAccount {
     @Column(name = "currency_code")
     private String currencyCode;
     
-    private double balance;
+    @Column(name = "balance_minor")
+    private long balanceMinor;
+    
+    @Transient
+    private boolean persisted;
     
     public UserAccount() {}
     
-    public UserAccount(String username, String currencyCode, double balance) {
+    public UserAccount(String username, String currencyCode, long balanceMinor) {
         this.username = username;
         this.currencyCode = currencyCode;
-        this.balance = balance;
+        this.balanceMinor = balanceMinor;
     }
     
     public String getUsername() {
@@ -41,11 +48,31 @@ public class UserAccount {
         this.currencyCode = currencyCode;
     }
     
-    public double getBalance() {
-        return balance;
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+    
+    public void setBalanceMinor(long balanceMinor) {
+        this.balanceMinor = balanceMinor;
+    }
+    
+    public BigDecimal getBalance() {
+        return MinorUnits.toDecimal(balanceMinor, currencyCode);
+    }
+    
+    @Override
+    public UserAccountId getId() {
+        return new UserAccountId(username, currencyCode);
+    }
+    
+    @Override
+    public boolean isNew() {
+        return !persisted;
     }
     
-    public void setBalance(double balance) {
-        this.balance = balance;
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
     }
 }
@@ -3,14 +3,50 @@ package com.example.currencyapp.model;
 
 import com.example.currencyapp.model.UserAccount;
 import com.example.currencyapp.model.UserAccountId;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserAccountRepository extends JpaRepository<UserAccount, UserAccountId> {
+
+    String BALANCE_WITH_PENDING = "a.balanceMinor + COALESCE((SELECT SUM(e.amountMinor) FROM LedgerEntry e " +
+            "WHERE e.username = a.username AND e.currencyCode = a.currencyCode AND e.projected = false), 0)";
+
     List<UserAccount> findByUsername(String username);
     Optional<UserAccount> findByUsernameAndCurrencyCode(String username, String currencyCode);
-}
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserAccount a WHERE a.username = :username AND a.currencyCode IN :currencyCodes ORDER BY a.currencyCode")
+    List<UserAccount> findAllForUpdate(@Param("username") String username,
+                                       @Param("currencyCodes") Collection<String> currencyCodes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserAccount a WHERE a.username IN :usernames ORDER BY a.username, a.currencyCode")
+    List<UserAccount> findAllForUpdateByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a.username, a.currencyCode, " + BALANCE_WITH_PENDING +
+            " FROM UserAccount a ORDER BY a.username, a.currencyCode")
+    Stream<Object[]> streamBalances();
+
+    @Query("SELECT " + BALANCE_WITH_PENDING +
+            " FROM UserAccount a WHERE a.username = :username AND a.currencyCode = :currencyCode")
+    Optional<Long> findBalance(@Param("username") String username, @Param("currencyCode") String currencyCode);
+
+    @Query("SELECT a.currencyCode, " + BALANCE_WITH_PENDING + " FROM UserAccount a WHERE a.username = :username")
+    List<Object[]> findBalancesByUsername(@Param("username") String username);
+}
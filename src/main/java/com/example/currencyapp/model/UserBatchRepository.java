@@ -0,0 +1,56 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class UserBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchRepository.class);
+
+    private static final String INSERT_USER = "INSERT INTO users (username, created_at) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    @Value("${users.batch.insert-size:500}")
+    private int batchSize = 500;
+
+    @Autowired
+    public UserBatchRepository(JdbcTemplate jdbcTemplate, UserRepository userRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public List<String> insertMissing(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>(userRepository.findExistingUsernames(usernames));
+        List<String> created = new ArrayList<>(usernames.size() - existing.size());
+        for (String username : usernames) {
+            if (!existing.contains(username)) {
+                created.add(username);
+            }
+        }
+        logger.debug("{} of {} usernames already registered", existing.size(), usernames.size());
+
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_USER, created, batchSize, (statement, username) -> {
+            statement.setString(1, username);
+            statement.setTimestamp(2, createdAt);
+        });
+        return created;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.currencyapp.model;
+
+public class UserBatchResponse {
+    private int created;
+    private int existing;
+    
+    public UserBatchResponse() {}
+    
+    public UserBatchResponse(int created, int existing) {
+        this.created = created;
+        this.existing = existing;
+    }
+    
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getExisting() {
+        return existing;
+    }
+    
+    public void setExisting(int existing) {
+        this.existing = existing;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.currencyapp.model;
 
 import com.example.currencyapp.model.UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 import java.util.Map;
@@ -13,6 +19,7 @@ import org.slf4j.LoggerFactory;
 
 @RestController
 @RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
@@ -20,26 +27,80 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Value("${users.page.max-size:1000}")
+    private int maxPageSize = 1000;
+
+    @Value("${users.batch.max-size:100000}")
+    private int maxBatchSize = 100000;
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        logger.debug("Streaming all users");
+        StreamingResponseBody body = out -> userService.writeUsernames(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping
-    public ResponseEntity<List<String>> getAllUsers() {
-        logger.info("Fetching all users.");
-        List<String> users = userService.getAllUsernames();
-        logger.info("Returning users: {}", users);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<String> users = userService.getAllUsernames();
+            logger.atDebug().addKeyValue("users", users.size()).log("Returning all users");
+            return ResponseEntity.ok(users);
+        }
+
+        int pageSize = limit == null ? maxPageSize : limit;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            logger.error("Invalid page size: {}", pageSize);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "'limit' must be between 1 and " + maxPageSize + ".");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        List<String> users = userService.getUsernames(after, pageSize);
+        logger.atDebug().addKeyValue("after", after)
+                .addKeyValue("limit", pageSize)
+                .addKeyValue("users", users.size())
+                .log("Returning user page");
+        if (users.size() < pageSize) {
+            return ResponseEntity.ok(users);
+        }
+
+        String next = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .queryParam("after", users.get(users.size() - 1))
+                .queryParam("limit", pageSize)
+                .encode()
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(users);
     }
 
     @PostMapping
     public ResponseEntity<Map<String, String>> addUser(@RequestBody Map<String, String> payload) {
         String username = payload.get("username");
-        logger.info("Attempting to add user: {}", username);
         String message = userService.addUser(username);
 
         Map<String, String> response = new HashMap<>();
         response.put("message", message);
         response.put("username", username);
 
-        logger.info("User addition response: {}", response);
+        logger.atDebug().addKeyValue("user", username).addKeyValue("message", message).log("User addition handled");
         return ResponseEntity.ok(response);
     }
-}
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> addUsers(@RequestBody List<String> usernames) {
+        if (usernames == null || usernames.isEmpty() || usernames.size() > maxBatchSize) {
+            logger.error("Invalid user batch size: {}", usernames == null ? 0 : usernames.size());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "A batch must contain between 1 and " + maxBatchSize + " usernames.");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        logger.atDebug().addKeyValue("users", usernames.size()).log("User batch requested");
+        UserBatchResponse response = userService.addUsers(usernames);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.currencyapp.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class UserDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+    private final UserRepository userRepository;
+    private final Set<String> knownUsers = ConcurrentHashMap.newKeySet();
+
+    @Value("${users.cache.max-size:100000}")
+    private int maxSize = 100000;
+
+    @Autowired
+    public UserDirectory(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean exists(String username) {
+        if (username == null) {
+            return false;
+        }
+        if (knownUsers.contains(username)) {
+            return true;
+        }
+        boolean exists = userRepository.existsById(username);
+        if (exists) {
+            remember(username);
+        }
+        return exists;
+    }
+
+    public Set<String> existing(Collection<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        Set<String> unknown = new HashSet<>();
+        for (String username : usernames) {
+            if (knownUsers.contains(username)) {
+                existing.add(username);
+            } else {
+                unknown.add(username);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (User user : userRepository.findAllById(unknown)) {
+                existing.add(user.getUsername());
+                remember(user.getUsername());
+            }
+        }
+        return existing;
+    }
+
+    public void remember(String username) {
+        if (knownUsers.size() >= maxSize) {
+            Iterator<String> evict = knownUsers.iterator();
+            if (evict.hasNext()) {
+                String evicted = evict.next();
+                evict.remove();
+                logger.debug("User cache full ({} entries), evicted {}", maxSize, evicted);
+            }
+        }
+        knownUsers.add(username);
+    }
+
+    public void forget(String username) {
+        knownUsers.remove(username);
+    }
+
+    public int size() {
+        return knownUsers.size();
+    }
+}
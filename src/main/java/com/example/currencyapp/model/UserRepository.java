@@ -1,10 +1,37 @@
 package com.example.currencyapp.model;
 
 import com.example.currencyapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
-}
 
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    List<String> findAllUsernames();
+
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    List<String> findUsernames(Pageable pageable);
+
+    @Query("SELECT u.username FROM User u WHERE u.username > :after ORDER BY u.username")
+    List<String> findUsernamesAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT u.username FROM User u ORDER BY u.username")
+    Stream<String> streamUsernames();
+}
@@ -1,32 +1,88 @@
 package com.example.currencyapp.model;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    private static final LogSampler addLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final LogSampler batchLogSampler = new LogSampler(Duration.ofSeconds(1));
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Value("${users.batch.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${users.batch.max-attempts:3}")
+    private int maxAttempts = 3;
+
     public List<String> getAllUsernames() {
-        logger.info("Fetching all usernames from the database");
-        List<String> usernames = userRepository.findAll().stream()
-                .map(User::getUsername)
-                .collect(Collectors.toList());
+        logger.debug("Fetching all usernames from the database");
+        List<String> usernames = userRepository.findAllUsernames();
         logger.debug("Found {} usernames", usernames.size());
         return usernames;
     }
 
+    public List<String> getUsernames(String after, int limit) {
+        logger.atDebug().addKeyValue("after", after).addKeyValue("limit", limit).log("Fetching usernames");
+        PageRequest page = PageRequest.of(0, limit);
+        List<String> usernames = after == null
+                ? userRepository.findUsernames(page)
+                : userRepository.findUsernamesAfter(after, page);
+        logger.debug("Found {} usernames", usernames.size());
+        return usernames;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeUsernames(OutputStream out) throws IOException {
+        logger.debug("Streaming all usernames");
+        int written = 0;
+        try (Stream<String> usernames = userRepository.streamUsernames();
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+
+            generator.writeStartArray();
+            Iterator<String> rows = usernames.iterator();
+            while (rows.hasNext()) {
+                generator.writeString(rows.next());
+                written++;
+            }
+            generator.writeEndArray();
+        }
+        logger.debug("Streamed {} usernames", written);
+    }
+
     public String addUser(String username) {
-        logger.info("Attempting to add user: {}", username);
+        logger.atDebug().addKeyValue("user", username).log("Adding user");
         if (userRepository.existsById(username)) {
             logger.warn("User {} already exists in the database", username);
             return "User already exists";
@@ -34,11 +90,52 @@ public class UserService {
 
         User user = new User(username);
         userRepository.save(user);
-        logger.info("Added new user: {}", username);
+        userDirectory.remember(username);
+        if (logger.isInfoEnabled() && addLogSampler.sample()) {
+            logger.atInfo().addKeyValue("user", username)
+                    .addKeyValue("skipped", addLogSampler.drainSkipped())
+                    .log("User added");
+        }
         
         return "User registered successfully";
     }
-}
 
+    public UserBatchResponse addUsers(List<String> usernames) {
+        List<String> unique = new ArrayList<>(new LinkedHashSet<>(usernames));
+        unique.remove(null);
+        logger.atDebug().addKeyValue("users", usernames.size())
+                .addKeyValue("unique", unique.size())
+                .log("Adding user batch");
 
+        int created = 0;
+        for (int offset = 0; offset < unique.size(); offset += chunkSize) {
+            List<String> chunk = unique.subList(offset, Math.min(offset + chunkSize, unique.size()));
+            for (String username : insertChunk(chunk)) {
+                userDirectory.remember(username);
+                created++;
+            }
+        }
 
+        if (logger.isInfoEnabled() && batchLogSampler.sample()) {
+            logger.atInfo().addKeyValue("created", created)
+                    .addKeyValue("existing", unique.size() - created)
+                    .addKeyValue("skipped", batchLogSampler.drainSkipped())
+                    .log("User batch added");
+        }
+        return new UserBatchResponse(created, unique.size() - created);
+    }
+
+    private List<String> insertChunk(List<String> chunk) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return userBatchRepository.insertMissing(chunk);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("User batch conflicted with a concurrent registration (attempt {} of {}), retrying: {}",
+                        attempt, maxAttempts, e.getMessage());
+            }
+        }
+    }
+}
@@ -11,19 +11,28 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.context.annotation.Import;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.eq;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.is;
 
 @WebMvcTest(AccountController.class)
+@Import(TestSecurityConfig.class)
 public class AccountControllerTest {
 
     @Autowired
@@ -141,6 +150,17 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.message", is("Invalid request body")));
     }
 
+    @Test
+    public void testHandleAccountOperation_MalformedBody() throws Exception {
+        // unparseable json gets the same error as an unknown operation
+        mockMvc.perform(post("/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + TEST_USERNAME + "\",\"amount\":\"abc\",\"deposit\":\"" + USD + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("error")))
+                .andExpect(jsonPath("$.message", is("Invalid request body")));
+    }
+
     @Test
     public void testGetAccounts_Success() throws Exception {
         // response for getting accounts
@@ -189,7 +209,7 @@ public class AccountControllerTest {
         successResponse.addData("currencyType", USD);
         successResponse.addData("newBalance", AMOUNT);
 
-        when(accountService.updateAccountBalance(eq(TEST_USERNAME), eq(USD), eq(AMOUNT)))
+        when(accountService.updateAccountBalance(eq(TEST_USERNAME), eq(USD), eq(new BigDecimal("100.0"))))
                 .thenReturn(ResponseEntity.ok(successResponse));
 
         // tests PUT request
@@ -209,7 +229,7 @@ public class AccountControllerTest {
         // error response
         AccountResponse errorResponse = new AccountResponse("error", "Username not found");
         
-        when(accountService.updateAccountBalance(eq("nonexistent"), eq(USD), anyDouble()))
+        when(accountService.updateAccountBalance(eq("nonexistent"), eq(USD), any(BigDecimal.class)))
                 .thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
 
         // if incorrenct username -> error
@@ -258,4 +278,89 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.status", is("error")))
                 .andExpect(jsonPath("$.message", is("Currency type account not found")));
     }
+
+    @Test
+    public void testHandleBatchOperation_Success() throws Exception {
+        // response with one result per operation
+        AccountResponse batchResponse = new AccountResponse("success", "Batch processed");
+        batchResponse.addData("succeeded", 2);
+        batchResponse.addData("failed", 0);
+
+        when(accountService.handleBatch(anyList()))
+                .thenReturn(ResponseEntity.ok(batchResponse));
+
+        // deposits and transfers can be mixed in one batch
+        mockMvc.perform(post("/accounts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"username\":\"" + TEST_USERNAME + "\",\"amount\":" + AMOUNT + ",\"deposit\":\"" + USD + "\"},"
+                        + "{\"username\":\"" + TEST_USERNAME + "\",\"amount\":" + AMOUNT + ",\"fromAccount\":\"" + USD + "\",\"toAccount\":\"" + EUR + "\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", is("Batch processed")))
+                .andExpect(jsonPath("$.data.succeeded", is(2)));
+
+        verify(accountService).handleBatch(argThat(operations -> operations.size() == 2
+                && operations.get(0) instanceof DepositRequest
+                && operations.get(1) instanceof TransferRequest));
+    }
+
+    @Test
+    public void testHandleBatchOperation_Empty() throws Exception {
+        // empty batch -> error
+        mockMvc.perform(post("/accounts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is("error")))
+                .andExpect(jsonPath("$.message", is("At least one operation is required")));
+    }
+
+    @Test
+    public void testGetValuation_Success() throws Exception {
+        // valuation of all accounts in eur
+        AccountResponse successResponse = new AccountResponse("success", "Valuation calculated");
+        successResponse.addData("target", EUR);
+        successResponse.addData("total", 1850.0);
+
+        when(accountService.getValuation(TEST_USERNAME, EUR))
+                .thenReturn(ResponseEntity.ok(successResponse));
+
+        mockMvc.perform(get("/accounts/valuation")
+                .param("username", TEST_USERNAME)
+                .param("target", EUR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.target", is(EUR)))
+                .andExpect(jsonPath("$.data.total", is(1850.0)));
+    }
+
+    @Test
+    public void testGetAllValuations_Streams() throws Exception {
+        // the service writes the valuations straight to the response once the request goes async
+        when(accountService.canValueIn(EUR)).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("[{\"username\":\"testuser\",\"total\":1850.0}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(accountService).writeValuations(eq(EUR), any());
+
+        MvcResult result = mockMvc.perform(get("/accounts/valuation/all")
+                .param("target", EUR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].total", is(1850.0)));
+    }
+
+    @Test
+    public void testGetAllValuations_InvalidTarget() throws Exception {
+        // unknown target is rejected before streaming starts
+        when(accountService.canValueIn("xyz")).thenReturn(false);
+
+        mockMvc.perform(get("/accounts/valuation/all")
+                .param("target", "xyz"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Invalid target currency")));
+    }
 }
@@ -0,0 +1,81 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// binds deposit and transfer bodies through a Map and through the typed AccountOperation;
+// compare gc.alloc.rate.norm for bytes allocated per request
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.AccountRequestBindingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountRequestBindingBenchmark {
+
+    private static final byte[] DEPOSIT = "{\"username\":\"testuser\",\"amount\":100.00,\"deposit\":\"usd\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRANSFER = "{\"username\":\"testuser\",\"amount\":100.00,\"fromAccount\":\"usd\",\"toAccount\":\"eur\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+    private final ObjectReader operationReader = objectMapper.readerFor(AccountOperation.class);
+
+    @Benchmark
+    public AccountOperation depositViaMap() throws IOException {
+        return fromMap(mapReader.readValue(DEPOSIT));
+    }
+
+    @Benchmark
+    public AccountOperation depositTyped() throws IOException {
+        return operationReader.readValue(DEPOSIT);
+    }
+
+    @Benchmark
+    public AccountOperation transferViaMap() throws IOException {
+        return fromMap(mapReader.readValue(TRANSFER));
+    }
+
+    @Benchmark
+    public AccountOperation transferTyped() throws IOException {
+        return operationReader.readValue(TRANSFER);
+    }
+
+    private static AccountOperation fromMap(Map<String, Object> request) {
+        BigDecimal amount = new BigDecimal(request.get("amount").toString());
+        if (request.containsKey("deposit")) {
+            return new DepositRequest((String) request.get("username"), amount, (String) request.get("deposit"));
+        }
+        return new TransferRequest((String) request.get("username"), amount,
+                (String) request.get("fromAccount"), (String) request.get("toAccount"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccountRequestBindingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.currencyapp.model;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AccountService.class, LedgerService.class, UserDirectory.class, PortfolioCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountServiceConcurrencyTest {
+
+    private static final String USERNAME = "contended";
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @MockBean
+    private CurrencyService currencyService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User(USERNAME));
+        when(currencyService.calculateRate("usd", "eur")).thenReturn(0.5);
+        when(currencyService.calculateRate("eur", "usd")).thenReturn(2.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        userAccountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDeposits_ShouldNotLoseUpdates() throws Exception {
+        int depositsPerThread = 50;
+
+        // every thread deposits into the same, initially missing, account
+        List<ResponseEntity<AccountResponse>> responses = runConcurrently(THREADS * depositsPerThread, () -> {
+            DepositRequest request = new DepositRequest();
+            request.setUsername(USERNAME);
+            request.setDeposit("usd");
+            request.setAmount(BigDecimal.ONE);
+            return accountService.handleDeposit(request);
+        });
+
+        assertThat(responses).allMatch(response -> response.getStatusCode() == HttpStatus.OK);
+        assertThat(balance("usd")).isEqualByComparingTo(BigDecimal.valueOf(THREADS * depositsPerThread));
+    }
+
+    @Test
+    void concurrentTransfers_ShouldNeverOverdraw() throws Exception {
+        userAccountRepository.save(new UserAccount(USERNAME, "usd", 10000L));
+
+        // twice as many transfers as the balance can cover
+        List<ResponseEntity<AccountResponse>> responses = runConcurrently(200, () -> {
+            TransferRequest request = new TransferRequest();
+            request.setUsername(USERNAME);
+            request.setFromAccount("usd");
+            request.setToAccount("eur");
+            request.setAmount(BigDecimal.ONE);
+            return accountService.handleTransfer(request);
+        });
+
+        long succeeded = responses.stream().filter(response -> response.getStatusCode() == HttpStatus.OK).count();
+        assertThat(succeeded).isEqualTo(100);
+        assertThat(balance("usd")).isEqualByComparingTo("0");
+        assertThat(balance("eur")).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void opposingTransfers_ShouldNotDeadlock() throws Exception {
+        userAccountRepository.save(new UserAccount(USERNAME, "usd", 100000L));
+        userAccountRepository.save(new UserAccount(USERNAME, "eur", 50000L));
+
+        // half the threads move usd to eur, the other half eur to usd
+        int[] counter = new int[1];
+        List<ResponseEntity<AccountResponse>> responses = runConcurrently(400, () -> {
+            boolean forward;
+            synchronized (counter) {
+                forward = counter[0]++ % 2 == 0;
+            }
+            TransferRequest request = new TransferRequest();
+            request.setUsername(USERNAME);
+            request.setFromAccount(forward ? "usd" : "eur");
+            request.setToAccount(forward ? "eur" : "usd");
+            request.setAmount(forward ? BigDecimal.valueOf(2) : BigDecimal.ONE);
+            return accountService.handleTransfer(request);
+        });
+
+        assertThat(responses).allMatch(response -> response.getStatusCode() == HttpStatus.OK);
+        assertThat(balance("usd")).isEqualByComparingTo("1000");
+        assertThat(balance("eur")).isEqualByComparingTo("500");
+    }
+
+    private BigDecimal balance(String currency) {
+        // fold the ledger into the account rows before reading them
+        while (ledgerService.projectPending() > 0) {
+        }
+        return userAccountRepository.findByUsernameAndCurrencyCode(USERNAME, currency)
+                .map(UserAccount::getBalance)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private List<ResponseEntity<AccountResponse>> runConcurrently(
+            int operations, Callable<ResponseEntity<AccountResponse>> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<AccountResponse>>> futures = new ArrayList<>(operations);
+            for (int i = 0; i < operations; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return operation.call();
+                }));
+            }
+            start.countDown();
+
+            List<ResponseEntity<AccountResponse>> responses = new ArrayList<>(operations);
+            for (Future<ResponseEntity<AccountResponse>> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
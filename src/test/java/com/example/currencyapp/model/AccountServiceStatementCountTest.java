@@ -0,0 +1,122 @@
+package com.example.currencyapp.model;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.currencyapp.model.SqlStatementRecorder")
+@Import({AccountService.class, LedgerService.class, UserDirectory.class, PortfolioCache.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountServiceStatementCountTest {
+
+    private static final String USERNAME = "counted";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @MockBean
+    private CurrencyService currencyService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User(USERNAME));
+        userAccountRepository.save(new UserAccount(USERNAME, "usd", 100000L));
+        userAccountRepository.save(new UserAccount(USERNAME, "eur", 100000L));
+        when(currencyService.calculateRate("usd", "eur")).thenReturn(0.5);
+
+        // first deposit resolves the user and warms up the ledger sequence
+        accountService.handleDeposit(new DepositRequest(USERNAME, BigDecimal.ONE, "usd"));
+        SqlStatementRecorder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        userAccountRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void deposit_ShouldOnlyReadAccountAndWriteLedger() {
+        assertThat(accountService.handleDeposit(new DepositRequest(USERNAME, BigDecimal.TEN, "usd"))
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // account row, balance with pending sum, ledger insert
+        assertThat(statements()).hasSize(3);
+    }
+
+    @Test
+    void getUserAccounts_ShouldOnlyReadAccountsAndPendingSums() {
+        assertThat(accountService.getUserAccounts(USERNAME).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // account rows with their pending sums
+        assertThat(statements()).hasSize(1);
+
+        // served from the portfolio cache until the next write
+        SqlStatementRecorder.clear();
+        assertThat(accountService.getUserAccounts(USERNAME).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statements()).isEmpty();
+    }
+
+    @Test
+    void transfer_ShouldNotLookUpUser() {
+        assertThat(accountService.handleTransfer(new TransferRequest(USERNAME, BigDecimal.ONE, "usd", "eur"))
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // locked source row and its balance, target row and its balance, one batched ledger insert
+        assertThat(statements()).hasSize(5);
+    }
+
+    @Test
+    void update_ShouldNotLookUpUser() {
+        assertThat(accountService.updateAccountBalance(USERNAME, "eur", BigDecimal.TEN).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        // locked account row, balance with pending sum, adjustment insert
+        assertThat(statements()).hasSize(3);
+    }
+
+    @Test
+    void delete_ShouldNotLookUpUser() {
+        assertThat(accountService.deleteAccount(USERNAME, "usd").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // locked account row, pending entries, closing entry insert, setup deposit marked projected, account delete
+        assertThat(statements()).hasSize(5);
+    }
+
+    @Test
+    void unknownUser_ShouldCostOneLookup() {
+        assertThat(accountService.getUserAccounts("stranger").getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(SqlStatementRecorder.statements()).hasSize(1);
+    }
+
+    private List<String> statements() {
+        // none of the recorded statements may touch the users table
+        List<String> statements = SqlStatementRecorder.statements();
+        assertThat(statements).noneMatch(sql -> sql.contains(" users "));
+        return statements;
+    }
+}
@@ -1,30 +1,41 @@
 package com.example.currencyapp.model;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.context.annotation.Import;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
+@Import(TestSecurityConfig.class)
 public class AccountServiceTest {
 
     @Mock
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
 
     @Mock
     private UserAccountRepository userAccountRepository;
@@ -32,24 +43,38 @@ public class AccountServiceTest {
     @Mock
     private CurrencyService currencyService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private PortfolioCache portfolioCache = new PortfolioCache();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AccountService accountService;
 
     private final String TEST_USERNAME = "testuser";
     private final String USD = "usd";
     private final String EUR = "eur";
-    private final double INITIAL_BALANCE = 1000.0;
-    private final double TRANSFER_AMOUNT = 100.0;
+    private final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    private final long INITIAL_BALANCE_MINOR = 100000L;
+    private final BigDecimal TRANSFER_AMOUNT = new BigDecimal("100.00");
+    private final long TRANSFER_AMOUNT_MINOR = 10000L;
     private final double CONVERSION_RATE = 0.85; // USD to EUR
 
     @BeforeEach
     public void setUp() {
        
-        when(userRepository.existsById(TEST_USERNAME)).thenReturn(true);
-        when(userRepository.existsById("nonexistent")).thenReturn(false);
+        when(userDirectory.exists(TEST_USERNAME)).thenReturn(true);
+        when(userDirectory.exists("nonexistent")).thenReturn(false);
 
-        UserAccount usdAccount = new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE);
-        UserAccount eurAccount = new UserAccount(TEST_USERNAME, EUR, INITIAL_BALANCE);
+        UserAccount usdAccount = new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE_MINOR);
+        UserAccount eurAccount = new UserAccount(TEST_USERNAME, EUR, INITIAL_BALANCE_MINOR);
         
         when(userAccountRepository.findByUsernameAndCurrencyCode(TEST_USERNAME, USD))
             .thenReturn(Optional.of(usdAccount));
@@ -57,6 +82,17 @@ public class AccountServiceTest {
             .thenReturn(Optional.of(eurAccount));
         when(userAccountRepository.findByUsername(TEST_USERNAME))
             .thenReturn(Arrays.asList(usdAccount, eurAccount));
+        when(userAccountRepository.findBalancesByUsername(TEST_USERNAME))
+            .thenReturn(Arrays.asList(new Object[]{USD, INITIAL_BALANCE_MINOR}, new Object[]{EUR, INITIAL_BALANCE_MINOR}));
+        when(userAccountRepository.save(any(UserAccount.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userAccountRepository.findAllForUpdate(eq(TEST_USERNAME), anyCollection()))
+            .thenAnswer(invocation -> {
+                Collection<?> codes = invocation.getArgument(1);
+                return Stream.of(usdAccount, eurAccount)
+                    .filter(account -> codes.contains(account.getCurrencyCode()))
+                    .toList();
+            });
             
         when(currencyService.calculateRate(USD, EUR)).thenReturn(CONVERSION_RATE);
     }
@@ -69,9 +105,6 @@ public class AccountServiceTest {
         request.setDeposit(USD);
         request.setAmount(TRANSFER_AMOUNT);
         
-        UserAccount updatedAccount = new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE + TRANSFER_AMOUNT);
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(updatedAccount);
-        
         // send request to service
         ResponseEntity<AccountResponse> response = accountService.handleDeposit(request);
         
@@ -82,9 +115,41 @@ public class AccountServiceTest {
         assertEquals("success", body.getStatus());
         assertEquals(TEST_USERNAME, body.getData().get("username"));
         assertEquals(USD, body.getData().get("currencyType"));
-        assertEquals(INITIAL_BALANCE + TRANSFER_AMOUNT, body.getData().get("balance"));
+        assertEquals(INITIAL_BALANCE.add(TRANSFER_AMOUNT), body.getData().get("balance"));
         
-        verify(userAccountRepository).save(any(UserAccount.class));
+        verify(ledgerService).record(TEST_USERNAME, USD, LedgerEntryType.DEPOSIT, TRANSFER_AMOUNT_MINOR, null);
+        verify(userAccountRepository, never()).save(any(UserAccount.class));
+    }
+
+    @Test
+    public void testHandleDeposit_InvalidAmounts() {
+        // sub-cent, negative, zero and overflowing amounts are rejected instead of rounded or wrapped
+        for (String amount : new String[]{"0.001", "-5.00", "0", "1e30"}) {
+            DepositRequest request = new DepositRequest();
+            request.setUsername(TEST_USERNAME);
+            request.setDeposit(USD);
+            request.setAmount(new BigDecimal(amount));
+
+            ResponseEntity<AccountResponse> response = accountService.handleDeposit(request);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), amount);
+            assertEquals("Invalid amount", response.getBody().getMessage());
+        }
+        verify(ledgerService, never()).record(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    public void testHandleTransfer_OverPreciseAmount() {
+        TransferRequest request = new TransferRequest();
+        request.setUsername(TEST_USERNAME);
+        request.setFromAccount(USD);
+        request.setToAccount(EUR);
+        request.setAmount(new BigDecimal("10.005"));
+
+        ResponseEntity<AccountResponse> response = accountService.handleTransfer(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(ledgerService, never()).record(any(), any(), any(), anyLong(), any());
     }
     
     @Test
@@ -96,11 +161,6 @@ public class AccountServiceTest {
         request.setDeposit(newCurrency);
         request.setAmount(TRANSFER_AMOUNT);
         
-        when(userAccountRepository.findByUsernameAndCurrencyCode(TEST_USERNAME, newCurrency))
-            .thenReturn(Optional.empty());
-        UserAccount newAccount = new UserAccount(TEST_USERNAME, newCurrency, TRANSFER_AMOUNT);
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(newAccount);
-        
         // send request to service
         ResponseEntity<AccountResponse> response = accountService.handleDeposit(request);
         
@@ -144,13 +204,6 @@ public class AccountServiceTest {
         request.setToAccount(EUR);
         request.setAmount(TRANSFER_AMOUNT);
         
-        UserAccount updatedFromAccount = new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE - TRANSFER_AMOUNT);
-        UserAccount updatedToAccount = new UserAccount(TEST_USERNAME, EUR, INITIAL_BALANCE + (TRANSFER_AMOUNT * CONVERSION_RATE));
-        
-        when(userAccountRepository.save(any(UserAccount.class)))
-            .thenReturn(updatedFromAccount)
-            .thenReturn(updatedToAccount);
-        
         // send request to service
         ResponseEntity<AccountResponse> response = accountService.handleTransfer(request);
         
@@ -162,11 +215,14 @@ public class AccountServiceTest {
         assertEquals(TEST_USERNAME, body.getData().get("username"));
         assertEquals(USD, body.getData().get("fromAccount"));
         assertEquals(EUR, body.getData().get("toAccount"));
-        assertEquals(TRANSFER_AMOUNT * CONVERSION_RATE, body.getData().get("amountTransferred"));
-        assertEquals(INITIAL_BALANCE - TRANSFER_AMOUNT, body.getData().get("fromAccountBalance"));
-        assertEquals(INITIAL_BALANCE + (TRANSFER_AMOUNT * CONVERSION_RATE), body.getData().get("toAccountBalance"));
+        assertEquals(new BigDecimal("85.00"), body.getData().get("amountTransferred"));
+        assertEquals(INITIAL_BALANCE.subtract(TRANSFER_AMOUNT), body.getData().get("fromAccountBalance"));
+        assertEquals(new BigDecimal("1085.00"), body.getData().get("toAccountBalance"));
         
-        verify(userAccountRepository, times(2)).save(any(UserAccount.class));
+        // both legs are appended to the ledger instead of overwriting balances
+        verify(ledgerService).record(TEST_USERNAME, USD, LedgerEntryType.TRANSFER_OUT, -TRANSFER_AMOUNT_MINOR, CONVERSION_RATE);
+        verify(ledgerService).record(TEST_USERNAME, EUR, LedgerEntryType.TRANSFER_IN, 8500L, CONVERSION_RATE);
+        verify(userAccountRepository, never()).save(any(UserAccount.class));
     }
     
     @Test
@@ -176,7 +232,7 @@ public class AccountServiceTest {
         request.setUsername(TEST_USERNAME);
         request.setFromAccount(USD);
         request.setToAccount(EUR);
-        request.setAmount(INITIAL_BALANCE + 1); 
+        request.setAmount(INITIAL_BALANCE.add(BigDecimal.ONE)); 
         
         // send request to service
         ResponseEntity<AccountResponse> response = accountService.handleTransfer(request);
@@ -201,17 +257,8 @@ public class AccountServiceTest {
         request.setToAccount(newCurrency);
         request.setAmount(TRANSFER_AMOUNT);
         
-        when(userAccountRepository.findByUsernameAndCurrencyCode(TEST_USERNAME, newCurrency))
-            .thenReturn(Optional.empty());
         when(currencyService.calculateRate(USD, newCurrency)).thenReturn(110.0);
         
-        UserAccount updatedFromAccount = new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE - TRANSFER_AMOUNT);
-        UserAccount newToAccount = new UserAccount(TEST_USERNAME, newCurrency, TRANSFER_AMOUNT * 110.0);
-        
-        when(userAccountRepository.save(any(UserAccount.class)))
-            .thenReturn(updatedFromAccount)
-            .thenReturn(newToAccount);
-        
         // send request to service
         ResponseEntity<AccountResponse> response = accountService.handleTransfer(request);
         
@@ -221,7 +268,8 @@ public class AccountServiceTest {
         assertNotNull(body);
         assertEquals("success", body.getStatus());
         assertEquals(newCurrency, body.getData().get("toAccount"));
-        assertEquals(TRANSFER_AMOUNT * 110.0, body.getData().get("amountTransferred"));
+        // yen has no minor unit
+        assertEquals(new BigDecimal("11000"), body.getData().get("amountTransferred"));
     }
     
     @Test
@@ -236,13 +284,109 @@ public class AccountServiceTest {
         assertEquals("success", body.getStatus());
         
         @SuppressWarnings("unchecked")
-        Map<String, Double> accounts = (Map<String, Double>) body.getData().get("accounts");
+        Map<String, BigDecimal> accounts = (Map<String, BigDecimal>) body.getData().get("accounts");
         assertNotNull(accounts);
         assertEquals(2, accounts.size());
         assertEquals(INITIAL_BALANCE, accounts.get(USD));
         assertEquals(INITIAL_BALANCE, accounts.get(EUR));
     }
     
+    @Test
+    public void testGetUserAccounts_CachedUntilWrite() {
+        // second read is served from the cache
+        accountService.getUserAccounts(TEST_USERNAME);
+        accountService.getUserAccounts(TEST_USERNAME);
+        verify(userAccountRepository, times(1)).findBalancesByUsername(TEST_USERNAME);
+        assertEquals(1, portfolioCache.getHitCount());
+        
+        // a deposit invalidates the cached portfolio
+        accountService.handleDeposit(new DepositRequest(TEST_USERNAME, TRANSFER_AMOUNT, USD));
+        accountService.getUserAccounts(TEST_USERNAME);
+        verify(userAccountRepository, times(2)).findBalancesByUsername(TEST_USERNAME);
+        verify(portfolioCache).invalidate(TEST_USERNAME);
+    }
+    
+    @Test
+    public void testGetValuation_ConvertsAllAccountsToTarget() {
+        when(currencyService.getSnapshot())
+            .thenReturn(new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", CONVERSION_RATE)));
+        
+        ResponseEntity<AccountResponse> response = accountService.getValuation(TEST_USERNAME, "EUR");
+        
+        // 1000 usd is 850 eur, plus the 1000 eur already held
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        AccountResponse body = response.getBody();
+        assertNotNull(body);
+        assertEquals(EUR, body.getData().get("target"));
+        assertEquals(new BigDecimal("1850.00"), body.getData().get("total"));
+        
+        @SuppressWarnings("unchecked")
+        Map<String, BigDecimal> holdings = (Map<String, BigDecimal>) body.getData().get("holdings");
+        assertEquals(new BigDecimal("850.00"), holdings.get(USD));
+        assertEquals(INITIAL_BALANCE, holdings.get(EUR));
+        verify(currencyService, never()).calculateRate(anyString(), anyString());
+    }
+    
+    @Test
+    public void testGetValuation_InvalidTarget() {
+        when(currencyService.getSnapshot())
+            .thenReturn(new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", CONVERSION_RATE)));
+        
+        ResponseEntity<AccountResponse> response = accountService.getValuation(TEST_USERNAME, "xyz");
+        
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid target currency", response.getBody().getMessage());
+    }
+    
+    @Test
+    public void testWriteValuations_GroupsRowsByUser() throws Exception {
+        when(currencyService.getSnapshot())
+            .thenReturn(new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", CONVERSION_RATE)));
+        when(userAccountRepository.streamBalances()).thenReturn(Stream.of(
+            new Object[] {"alice", EUR, 1000L},
+            new Object[] {"alice", USD, 10000L},
+            new Object[] {"alice", "xyz", 500L},
+            new Object[] {"bob", USD, 200L}));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        accountService.writeValuations(EUR, out);
+        
+        // unpriced currencies are null and left out of the total
+        assertEquals("[{\"username\":\"alice\",\"holdings\":{\"eur\":10.00,\"usd\":85.00,\"xyz\":null},\"total\":95.00},"
+            + "{\"username\":\"bob\",\"holdings\":{\"usd\":1.70},\"total\":1.70}]", out.toString());
+    }
+    
+    @Test
+    public void testHandleTransfer_RoundsConvertedAmount() {
+        // 0.01 usd at 0.85 is 0.0085 eur, which rounds half-even to 0.01
+        TransferRequest request = new TransferRequest();
+        request.setUsername(TEST_USERNAME);
+        request.setFromAccount(USD);
+        request.setToAccount(EUR);
+        request.setAmount(new BigDecimal("0.01"));
+        
+        ResponseEntity<AccountResponse> response = accountService.handleTransfer(request);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("0.01"), response.getBody().getData().get("amountTransferred"));
+        verify(ledgerService).record(TEST_USERNAME, EUR, LedgerEntryType.TRANSFER_IN, 1L, CONVERSION_RATE);
+    }
+    
+    @Test
+    public void testOperations_AreTimedByOutcome() {
+        accountService.handleDeposit(new DepositRequest(TEST_USERNAME, TRANSFER_AMOUNT, USD));
+        accountService.handleDeposit(new DepositRequest("nonexistent", TRANSFER_AMOUNT, USD));
+        accountService.deleteAccount(TEST_USERNAME, USD);
+
+        // each operation lands in its own timer, tagged with how it ended
+        assertEquals(1, meterRegistry.get("accounts.operations")
+            .tags("operation", "deposit", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("accounts.operations")
+            .tags("operation", "deposit", "outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("accounts.operations")
+            .tags("operation", "delete", "outcome", "success").timer().count());
+    }
+    
     @Test
     public void testGetUserAccounts_UserNotFound() {
         // error response for user that doesn't exist
@@ -259,9 +403,7 @@ public class AccountServiceTest {
     @Test
     public void testUpdateAccountBalance_Success() {
         // test is PUT works
-        double newBalance = 1500.0;
-        UserAccount updatedAccount = new UserAccount(TEST_USERNAME, USD, newBalance);
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(updatedAccount);
+        BigDecimal newBalance = new BigDecimal("1500.00");
         
         // get the response from service
         ResponseEntity<AccountResponse> response = accountService.updateAccountBalance(TEST_USERNAME, USD, newBalance);
@@ -275,19 +417,15 @@ public class AccountServiceTest {
         assertEquals(USD, body.getData().get("currencyType"));
         assertEquals(newBalance, body.getData().get("newBalance"));
         
-        verify(userAccountRepository).save(any(UserAccount.class));
+        // the difference is recorded as an adjustment
+        verify(ledgerService).record(TEST_USERNAME, USD, LedgerEntryType.ADJUSTMENT, 50000L, null);
     }
     
     @Test
     public void testUpdateAccountBalance_CreateNewAccount() {
         // creating new account with following params
         String newCurrency = "cad";
-        double newBalance = 500.0;
-        
-        when(userAccountRepository.findByUsernameAndCurrencyCode(TEST_USERNAME, newCurrency))
-            .thenReturn(Optional.empty());
-        UserAccount newAccount = new UserAccount(TEST_USERNAME, newCurrency, newBalance);
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(newAccount);
+        BigDecimal newBalance = new BigDecimal("500.00");
         
         // get response from service
         ResponseEntity<AccountResponse> response = accountService.updateAccountBalance(TEST_USERNAME, newCurrency, newBalance);
@@ -299,6 +437,9 @@ public class AccountServiceTest {
         assertEquals("success", body.getStatus());
         assertEquals(newBalance, body.getData().get("newBalance"));
         assertEquals(newCurrency, body.getData().get("currencyType"));
+        
+        verify(userAccountRepository).save(any(UserAccount.class));
+        verify(ledgerService).record(TEST_USERNAME, newCurrency, LedgerEntryType.ADJUSTMENT, 50000L, null);
     }
     
     @Test
@@ -314,6 +455,7 @@ public class AccountServiceTest {
         assertEquals(TEST_USERNAME, body.getData().get("username"));
         assertEquals(USD, body.getData().get("deletedAccount"));
         
+        verify(ledgerService).close(any(UserAccount.class));
         verify(userAccountRepository).delete(any(UserAccount.class));
     }
     
@@ -321,8 +463,6 @@ public class AccountServiceTest {
     public void testDeleteAccount_AccountNotFound() {
         // try deleting fake account
         String nonExistentCurrency = "xyz";
-        when(userAccountRepository.findByUsernameAndCurrencyCode(TEST_USERNAME, nonExistentCurrency))
-            .thenReturn(Optional.empty());
         
         // get the response from service
         ResponseEntity<AccountResponse> response = accountService.deleteAccount(TEST_USERNAME, nonExistentCurrency);
@@ -336,4 +476,45 @@ public class AccountServiceTest {
         
         verify(userAccountRepository, never()).delete(any(UserAccount.class));
     }
+    
+    @Test
+    public void testHandleBatch_AppliesOperationsInOrder() {
+        // usd balance is only enough for the second transfer after the deposit
+        when(userDirectory.existing(any())).thenReturn(Set.of(TEST_USERNAME));
+        when(userAccountRepository.findAllForUpdateByUsernameIn(any()))
+            .thenReturn(List.of(new UserAccount(TEST_USERNAME, USD, INITIAL_BALANCE_MINOR)));
+        when(currencyService.getSnapshot())
+            .thenReturn(new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", CONVERSION_RATE)));
+        
+        List<AccountOperation> operations = Arrays.asList(
+            new TransferRequest(TEST_USERNAME, new BigDecimal("900.00"), USD, EUR),
+            new TransferRequest(TEST_USERNAME, new BigDecimal("200.00"), USD, EUR),
+            new DepositRequest(TEST_USERNAME, new BigDecimal("150.00"), USD),
+            new TransferRequest(TEST_USERNAME, new BigDecimal("200.00"), USD, EUR),
+            new DepositRequest("nonexistent", TRANSFER_AMOUNT, USD),
+            null);
+        
+        ResponseEntity<AccountResponse> response = accountService.handleBatch(operations);
+        
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        AccountResponse body = response.getBody();
+        assertNotNull(body);
+        assertEquals(3, body.getData().get("succeeded"));
+        assertEquals(3, body.getData().get("failed"));
+        
+        @SuppressWarnings("unchecked")
+        List<AccountResponse> results = (List<AccountResponse>) body.getData().get("results");
+        assertEquals("success", results.get(0).getStatus());
+        assertEquals("Insufficient funds or invalid fromAccount", results.get(1).getMessage());
+        assertEquals(new BigDecimal("250.00"), results.get(2).getData().get("balance"));
+        assertEquals(new BigDecimal("50.00"), results.get(3).getData().get("fromAccountBalance"));
+        assertEquals(new BigDecimal("935.00"), results.get(3).getData().get("toAccountBalance"));
+        assertEquals("Username not found", results.get(4).getMessage());
+        assertEquals("Invalid request body", results.get(5).getMessage());
+        
+        // one lookup for all users and one write per table
+        verify(userDirectory, never()).exists(any());
+        verify(userAccountRepository).saveAll(argThat(accounts -> accounts.iterator().hasNext()));
+        verify(ledgerService).recordAll(argThat(entries -> entries.size() == 5));
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.currencyapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.CrossRateBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossRateBenchmark {
+
+    private static final int CURRENCIES = 300;
+
+    private HashMap<String, Double> rates;
+    private CrossRateMatrix matrix;
+    private String[] pairs;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        rates = new HashMap<>();
+        rates.put("usd", 1.0);
+        for (int i = 1; i < CURRENCIES; i++) {
+            rates.put(String.format("c%02d", i), 0.5 + i * 0.37);
+        }
+        matrix = new CrossRateMatrix(rates);
+
+        String[] codes = rates.keySet().toArray(new String[0]);
+        pairs = new String[codes.length * 2];
+        for (int i = 0; i < codes.length; i++) {
+            pairs[i * 2] = codes[i];
+            pairs[i * 2 + 1] = codes[(i * 7 + 3) % codes.length];
+        }
+    }
+
+    private int nextPair() {
+        int index = cursor;
+        cursor = (index + 2) % pairs.length;
+        return index;
+    }
+
+    @Benchmark
+    public double hashMapDivision() {
+        int i = nextPair();
+        String from = pairs[i];
+        String to = pairs[i + 1];
+        if ("usd".equals(from)) {
+            return rates.get(to);
+        }
+        return rates.get(to) / rates.get(from);
+    }
+
+    @Benchmark
+    public double matrixLookup() {
+        int i = nextPair();
+        return matrix.rate(pairs[i], pairs[i + 1]);
+    }
+
+    @Benchmark
+    public CrossRateMatrix buildMatrix() {
+        return new CrossRateMatrix(rates);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CrossRateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -6,18 +6,36 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CurrencyController.class)
+@Import({RatesResponder.class, TestSecurityConfig.class})
 public class CurrencyControllerTest {
 
     @Autowired
@@ -26,6 +44,9 @@ public class CurrencyControllerTest {
     @MockBean
     private CurrencyService currencyService;
 
+    @MockBean
+    private RateStreamService rateStreamService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -41,6 +62,7 @@ public class CurrencyControllerTest {
         
         // mock service
         when(currencyService.getRates()).thenReturn(mockRates);
+        when(currencyService.getSnapshot()).thenReturn(new RateSnapshot(LocalDate.now(), 1, mockRates));
         
         // correct currencies 
         when(currencyService.calculateRate("usd", "eur")).thenReturn(0.85);
@@ -63,6 +85,59 @@ public class CurrencyControllerTest {
                 .andExpect(jsonPath("$.jpy").value(110.0));
     }
 
+    @Test
+    void getCurrencies_ShouldSetCachingHeaders() throws Exception {
+        mockMvc.perform(get("/currencies"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("private")))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)));
+    }
+
+    @Test
+    void getCurrencies_WithMatchingEtag_ShouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/currencies"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/currencies").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getCurrencies_WithStaleEtag_ShouldReturnRates() throws Exception {
+        mockMvc.perform(get("/currencies").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eur").value(0.85));
+    }
+
+    // an empty snapshot means the rates are unavailable, clients must not cache it until midnight
+    @Test
+    void getCurrencies_WithoutRates_ShouldReturnServiceUnavailable() throws Exception {
+        when(currencyService.getSnapshot()).thenReturn(new RateSnapshot(LocalDate.now(), 2, new HashMap<>()));
+
+        mockMvc.perform(get("/currencies"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+
+    @Test
+    void getCurrencies_WithGzipAccepted_ShouldReturnCompressedBody() throws Exception {
+        byte[] body = mockMvc.perform(get("/currencies").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // decompressed body is the same json
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            HashMap<?, ?> rates = objectMapper.readValue(in, HashMap.class);
+            assertEquals(0.85, rates.get("eur"));
+        }
+    }
+
     @Test
     void getExchangeRate_WithValidCurrencyPair_ShouldReturnExchangeRate() throws Exception {
         CurrencyRequest request = new CurrencyRequest();
@@ -138,5 +213,67 @@ public class CurrencyControllerTest {
                 .andExpect(jsonPath("$.toCurrency").value("eur"))
                 .andExpect(jsonPath("$.rate").value(0.85));
     }
-}
 
+    // batch of pairs returns one result per pair with per-item errors
+    @Test
+    void getExchangeRates_WithBatch_ShouldReturnResultPerPair() throws Exception {
+        CurrencyBatchResponse batchResponse = new CurrencyBatchResponse(LocalDate.now().toString(), List.of(
+                new CurrencyBatchResult("usd", "eur", 0.85, 10.0),
+                CurrencyBatchResult.error("usd", "xyz", "Invalid currency pair: 'usd' to 'xyz'.")));
+        when(currencyService.convertBatch(anyList())).thenReturn(batchResponse);
+
+        mockMvc.perform(post("/currencies/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"fromCurrency\":\"USD\",\"toCurrency\":\"EUR\",\"amount\":10},"
+                        + "{\"fromCurrency\":\"USD\",\"toCurrency\":\"XYZ\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].rate").value(0.85))
+                .andExpect(jsonPath("$.results[0].convertedAmount").value(8.5))
+                .andExpect(jsonPath("$.results[1].error").value("Invalid currency pair: 'usd' to 'xyz'."))
+                .andExpect(jsonPath("$.results[1].rate").doesNotExist());
+    }
+
+    // empty batch is rejected
+    @Test
+    void getExchangeRates_WithEmptyBatch_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/currencies/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At least one currency pair is required."));
+    }
+
+    // history is written straight to the response once the request goes async
+    @Test
+    void getHistory_ShouldStreamServiceOutput() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 2);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("[{\"date\":\"2024-01-01\",\"rates\":{\"eur\":0.85}}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(currencyService).writeHistory(eq(from), eq(to), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/currencies/history")
+                .param("from", "2024-01-01")
+                .param("to", "2024-01-02"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].rates.eur").value(0.85));
+    }
+
+    // reversed range is rejected before anything is streamed
+    @Test
+    void getHistory_WithReversedRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/currencies/history")
+                .param("from", "2024-01-02")
+                .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("'from' must not be after 'to'."));
+    }
+}
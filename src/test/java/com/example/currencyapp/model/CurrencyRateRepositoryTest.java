@@ -5,10 +5,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.context.annotation.Import;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @SpringBootTest
+@Import(TestSecurityConfig.class)
 class CurrencyRateRepositoryTest {
 
     @Autowired
@@ -19,11 +25,11 @@ class CurrencyRateRepositoryTest {
         CurrencyRate rate = new CurrencyRate();
         rate.setCurrencyCode("usd");
         rate.setRate(1.0);
-        rate.setDate("2025-04-28");
+        rate.setDate(LocalDate.of(2025, 4, 28));
 
         currencyRateRepository.save(rate);
 
-        Optional<CurrencyRate> found = currencyRateRepository.findById("usd");
+        Optional<CurrencyRate> found = currencyRateRepository.findById(new CurrencyRateId(LocalDate.of(2025, 4, 28), "usd"));
         assertThat(found).isPresent();
         assertThat(found.get().getRate()).isEqualTo(1.0);
     }
@@ -31,7 +37,7 @@ class CurrencyRateRepositoryTest {
     // error, currency doesn't exist so return error
     @Test
     void testFindById_NotFound() {
-        Optional<CurrencyRate> found = currencyRateRepository.findById("nonexistent");
+        Optional<CurrencyRate> found = currencyRateRepository.findById(new CurrencyRateId(LocalDate.of(2025, 4, 28), "nonexistent"));
         assertThat(found).isNotPresent();  
     }
 
@@ -41,7 +47,7 @@ class CurrencyRateRepositoryTest {
         CurrencyRate rate = new CurrencyRate();
         rate.setCurrencyCode(null); // Invalid primary key
         rate.setRate(1.2);
-        rate.setDate("2025-04-28");
+        rate.setDate(LocalDate.of(2025, 4, 28));
 
         try {
             currencyRateRepository.save(rate);
@@ -50,4 +56,38 @@ class CurrencyRateRepositoryTest {
             assertThat(e).isInstanceOf(Exception.class); 
         }
     }
+
+    // a new day's rate should not overwrite the previous day for the same currency
+    @Test
+    @Transactional
+    void testHistoryIsKeptPerDate() {
+        currencyRateRepository.save(rate(LocalDate.of(2025, 5, 1), "EUR", 0.90));
+        currencyRateRepository.save(rate(LocalDate.of(2025, 5, 2), "EUR", 0.91));
+        currencyRateRepository.save(rate(LocalDate.of(2025, 5, 2), "GBP", 0.80));
+        currencyRateRepository.save(rate(LocalDate.of(2025, 5, 3), "EUR", 0.92));
+
+        assertThat(currencyRateRepository.findByDate(LocalDate.of(2025, 5, 2))).hasSize(2);
+
+        List<Double> eurHistory;
+        try (var history = currencyRateRepository.streamByCurrencyAndDateBetween(
+                "EUR", LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 2))) {
+            eurHistory = history.map(CurrencyRate::getRate).collect(Collectors.toList());
+        }
+        assertThat(eurHistory).containsExactly(0.90, 0.91);
+
+        long rangeCount;
+        try (var history = currencyRateRepository.streamByDateBetween(
+                LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 3))) {
+            rangeCount = history.count();
+        }
+        assertThat(rangeCount).isEqualTo(3);
+    }
+
+    private static CurrencyRate rate(LocalDate date, String code, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setDate(date);
+        rate.setCurrencyCode(code);
+        rate.setRate(value);
+        return rate;
+    }
 }
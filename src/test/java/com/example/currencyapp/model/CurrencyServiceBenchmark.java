@@ -0,0 +1,78 @@
+package com.example.currencyapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// rate lookups through CurrencyService against an installed snapshot, without the upstream api or database
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.CurrencyServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyServiceBenchmark {
+
+    private static final int CURRENCIES = 300;
+
+    private CurrencyService currencyService;
+    private String[] currencies;
+    private int cursor;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Map<String, Double> rates = new HashMap<>();
+        currencies = new String[CURRENCIES];
+        rates.put("usd", 1.0);
+        currencies[0] = "usd";
+        for (int i = 1; i < CURRENCIES; i++) {
+            currencies[i] = String.format("c%02d", i);
+            rates.put(currencies[i], 0.5 + i * 0.01);
+        }
+
+        currencyService = new CurrencyService();
+        ((AtomicReference<RateSnapshot>) ReflectionTestUtils.getField(currencyService, "snapshot"))
+                .set(new RateSnapshot(LocalDate.now(), 1, rates));
+    }
+
+    private String nextCurrency() {
+        int index = cursor;
+        cursor = (index + 1) % CURRENCIES;
+        return currencies[index];
+    }
+
+    @Benchmark
+    public double calculateRate() {
+        return currencyService.calculateRate(nextCurrency(), nextCurrency());
+    }
+
+    @Benchmark
+    public Map<String, Double> getRates() {
+        return currencyService.getRates();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CurrencyServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
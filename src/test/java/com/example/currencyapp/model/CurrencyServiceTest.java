@@ -1,16 +1,34 @@
 package com.example.currencyapp.model;
 
 
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,12 +38,66 @@ class CurrencyServiceTest {
     @Mock
     private CurrencyRateRepository currencyRateRepository;
 
+    @Mock
+    private CurrencyRateBatchRepository currencyRateBatchRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CurrencyService currencyService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer stubApi;
+    private final AtomicInteger apiHits = new AtomicInteger();
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(currencyService, "rateApiClient",
+                new RateApiClient(Duration.ofSeconds(2), Duration.ofSeconds(5), 2, Duration.ofMillis(20)));
+        ReflectionTestUtils.setField(currencyService, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stubApi != null) {
+            stubApi.stop(0);
+        }
+    }
+
+    // local stand-in for the jsdelivr api, slow enough for concurrent callers to overlap
+    private void startStubApi() throws Exception {
+        stubApi = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubApi.createContext("/", exchange -> {
+            apiHits.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failuresBeforeSuccess.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"date\":\"2025-04-26\",\"usd\":{\"usd\":1,\"eur\":0.9,\"gbp\":0.8}}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubApi.start();
+        ReflectionTestUtils.setField(currencyService, "apiUrl",
+                "http://localhost:" + stubApi.getAddress().getPort() + "/%s/usd.json");
     }
 
     // testing getting rates
@@ -34,17 +106,42 @@ class CurrencyServiceTest {
         CurrencyRate rate = new CurrencyRate();
         rate.setCurrencyCode("EUR");
         rate.setRate(0.9);
-        rate.setDate("2025-04-26");
+        rate.setDate(LocalDate.of(2025, 4, 26));
 
-        when(currencyRateRepository.findByDate(anyString()))
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
                 .thenReturn(List.of(rate));
 
-        HashMap<String, Double> rates = currencyService.getRates();
+        Map<String, Double> rates = currencyService.getRates();
 
         assertNotNull(rates);
         assertEquals(0.9, rates.get("eur"));
     }
 
+    // second call should be served from the in-memory snapshot
+    @Test
+    void testGetRates_ServedFromSnapshotAfterFirstLoad() {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setCurrencyCode("EUR");
+        rate.setRate(0.9);
+        rate.setDate(LocalDate.of(2025, 4, 26));
+
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(List.of(rate));
+
+        RateSnapshot first = currencyService.getSnapshot();
+        RateSnapshot second = currencyService.getSnapshot();
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.getRates().put("gbp", 0.8));
+        verify(currencyRateRepository, times(1)).findByDate(any(LocalDate.class));
+
+        // subscribers of the rate stream are told about the new snapshot once
+        ArgumentCaptor<RateSnapshotEvent> event = ArgumentCaptor.forClass(RateSnapshotEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertNull(event.getValue().getPrevious());
+        assertSame(first, event.getValue().getCurrent());
+    }
+
     //calculate rates from usd to another
     @Test
     void testCalculateRate_FromUsdToOther() {
@@ -53,7 +150,7 @@ class CurrencyServiceTest {
         mockRates.put("usd", 1.0);
 
         CurrencyService spyService = spy(currencyService);
-        doReturn(mockRates).when(spyService).getRates();
+        doReturn(new RateSnapshot(LocalDate.now(), 1, mockRates)).when(spyService).getSnapshot();
 
         double result = spyService.calculateRate("usd", "eur");
         assertEquals(0.9, result);
@@ -66,23 +163,203 @@ class CurrencyServiceTest {
         mockRates.put("eur", 0.9);
         mockRates.put("gbp", 0.8);
 
-        //using spy because don't want to use db connection for getRates
+        //using spy because don't want to use db connection for getSnapshot
         CurrencyService spyService = spy(currencyService);
-        doReturn(mockRates).when(spyService).getRates();
+        doReturn(new RateSnapshot(LocalDate.now(), 1, mockRates)).when(spyService).getSnapshot();
 
         double result = spyService.calculateRate("eur", "gbp");
 
         assertEquals(0.8 / 0.9, result, 0.0001);
     }
 
+    //unknown currency should be reported as an invalid pair
+    @Test
+    void testCalculateRate_UnknownCurrency() {
+        HashMap<String, Double> mockRates = new HashMap<>();
+        mockRates.put("eur", 0.9);
+
+        CurrencyService spyService = spy(currencyService);
+        doReturn(new RateSnapshot(LocalDate.now(), 1, mockRates)).when(spyService).getSnapshot();
+
+        assertEquals(-1.0, spyService.calculateRate("eur", "xyz"));
+        assertEquals(-1.0, spyService.calculateRate("xyz", "usd"));
+        assertEquals(1 / 0.9, spyService.calculateRate("eur", "usd"), 0.0001);
+    }
+
+    //batch conversion uses one snapshot and reports errors per item
+    @Test
+    void testConvertBatch_MixedResults() {
+        HashMap<String, Double> mockRates = new HashMap<>();
+        mockRates.put("eur", 0.9);
+        mockRates.put("gbp", 0.8);
+
+        CurrencyService spyService = spy(currencyService);
+        doReturn(new RateSnapshot(LocalDate.now(), 1, mockRates)).when(spyService).getSnapshot();
+
+        CurrencyRequest valid = new CurrencyRequest();
+        valid.setFromCurrency("EUR");
+        valid.setToCurrency("gbp");
+        valid.setAmount(90.0);
+        CurrencyRequest unknown = new CurrencyRequest();
+        unknown.setFromCurrency("usd");
+        unknown.setToCurrency("xyz");
+        CurrencyRequest missing = new CurrencyRequest();
+        missing.setFromCurrency("usd");
+
+        CurrencyBatchResponse response = spyService.convertBatch(List.of(valid, unknown, missing));
+
+        assertEquals(3, response.getResults().size());
+        assertEquals(0.8 / 0.9, response.getResults().get(0).getRate(), 0.0001);
+        assertEquals(80.0, response.getResults().get(0).getConvertedAmount(), 0.0001);
+        assertNotNull(response.getResults().get(1).getError());
+        assertNotNull(response.getResults().get(2).getError());
+        verify(spyService, times(1)).getSnapshot();
+    }
+
     //just making sure the api request actually fetches something
     @Test
     void testFetchRatesFromDatabase_WhenEmpty() {
-        when(currencyRateRepository.findByDate(anyString()))
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
                 .thenReturn(Collections.emptyList());
 
-        HashMap<String, Double> rates = currencyService.getRates();
+        Map<String, Double> rates = currencyService.getRates();
 
         assertNotNull(rates);
     }
+
+    // concurrent misses should share a single upstream fetch
+    @Test
+    void testGetSnapshot_ConcurrentMissesShareOneFetch() throws Exception {
+        startStubApi();
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RateSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return currencyService.getSnapshot();
+            }));
+        }
+        start.countDown();
+
+        RateSnapshot first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<RateSnapshot> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, apiHits.get());
+        assertEquals(0.9, first.getRates().get("eur"));
+        verify(currencyRateBatchRepository, times(1)).replaceRates(any(LocalDate.class), any(RatePayload.class));
+    }
+
+    // prefetched rates should be picked up without another upstream call
+    @Test
+    void testPrefetchRates_StagedSnapshotIsUsed() throws Exception {
+        startStubApi();
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        currencyService.prefetchRates(LocalDate.now());
+        currencyService.prefetchRates(LocalDate.now());
+        Map<String, Double> rates = currencyService.getRates();
+
+        assertEquals(1, apiHits.get());
+        assertEquals(0.8, rates.get("gbp"));
+    }
+
+    // transient upstream errors should be retried with backoff
+    @Test
+    void testGetSnapshot_RetriesTransientFailures() throws Exception {
+        startStubApi();
+        failuresBeforeSuccess.set(2);
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        RateSnapshot snapshot = currencyService.getSnapshot();
+
+        assertEquals(3, apiHits.get());
+        assertEquals(0.9, snapshot.getRates().get("eur"));
+        assertEquals("\"v1\"", snapshot.getEtag());
+    }
+
+    // unchanged rates should cost a 304 and keep the current snapshot
+    @Test
+    void testRevalidateRates_NotModified() throws Exception {
+        startStubApi();
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        RateSnapshot first = currencyService.getSnapshot();
+        currencyService.revalidateRates();
+
+        assertEquals(2, apiHits.get());
+        assertSame(first, currencyService.getSnapshot());
+        verify(currencyRateBatchRepository, times(1)).replaceRates(any(LocalDate.class), any(RatePayload.class));
+    }
+
+    // upstream calls should be timed by outcome, and failures counted
+    @Test
+    void testFetchMetrics_RecordOutcomes() throws Exception {
+        startStubApi();
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        currencyService.getSnapshot();
+        currencyService.revalidateRates();
+        failuresBeforeSuccess.set(10);
+        currencyService.revalidateRates();
+
+        assertEquals(1, meterRegistry.get("currency.rates.fetch").tag("outcome", "ok").timer().count());
+        assertEquals(1, meterRegistry.get("currency.rates.fetch").tag("outcome", "not_modified").timer().count());
+        assertEquals(1, meterRegistry.get("currency.rates.fetch").tag("outcome", "error").timer().count());
+        assertEquals(1.0, meterRegistry.get("currency.rates.fetch.failures").tag("reason", "io").counter().count());
+    }
+
+    // when the api is down the last stored day should be served
+    @Test
+    void testGetSnapshot_FallsBackToLastStoredDay() throws Exception {
+        startStubApi();
+        failuresBeforeSuccess.set(10);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        CurrencyRate rate = new CurrencyRate();
+        rate.setCurrencyCode("EUR");
+        rate.setRate(0.95);
+        rate.setDate(yesterday);
+
+        when(currencyRateRepository.findByDate(LocalDate.now()))
+                .thenReturn(Collections.emptyList());
+        when(currencyRateRepository.findByDate(yesterday))
+                .thenReturn(List.of(rate));
+        when(currencyRateRepository.findLatestDateBefore(LocalDate.now()))
+                .thenReturn(yesterday);
+
+        RateSnapshot snapshot = currencyService.getSnapshot();
+        RateSnapshot again = currencyService.getSnapshot();
+
+        assertEquals(yesterday, snapshot.getDate());
+        assertEquals(0.95, snapshot.getRates().get("eur"));
+        assertSame(snapshot, again);
+        assertEquals(3, apiHits.get());
+    }
+
+    // a cold start with nothing stored and the api down should back off instead of refetching per request
+    @Test
+    void testGetSnapshot_BacksOffWhenNothingIsAvailable() throws Exception {
+        startStubApi();
+        failuresBeforeSuccess.set(10);
+        when(currencyRateRepository.findByDate(any(LocalDate.class)))
+                .thenReturn(Collections.emptyList());
+
+        RateSnapshot snapshot = currencyService.getSnapshot();
+        RateSnapshot again = currencyService.getSnapshot();
+
+        assertTrue(snapshot.getRates().isEmpty());
+        assertSame(snapshot, again);
+        assertEquals(3, apiHits.get());
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(LedgerService.class)
+class LedgerServiceTest {
+
+    private static final String USERNAME = "ledgeruser";
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @BeforeEach
+    void setUp() {
+        userAccountRepository.save(new UserAccount(USERNAME, "usd", 0L));
+        ledgerService.record(USERNAME, "usd", LedgerEntryType.DEPOSIT, 10000L, null);
+        ledgerService.record(USERNAME, "usd", LedgerEntryType.TRANSFER_OUT, -4000L, 0.5);
+        ledgerService.record(USERNAME, "eur", LedgerEntryType.TRANSFER_IN, 2000L, 0.5);
+    }
+
+    @Test
+    void pendingEntries_ShouldCountTowardsBalanceBeforeProjection() {
+        assertThat(ledgerService.pendingBalance(USERNAME, "usd")).isEqualTo(6000L);
+        assertThat(ledgerService.pendingBalances(USERNAME))
+                .containsEntry("usd", 6000L)
+                .containsEntry("eur", 2000L);
+        assertThat(userAccountRepository.findByUsernameAndCurrencyCode(USERNAME, "usd").get().getBalanceMinor()).isZero();
+    }
+
+    @Test
+    void projectPending_ShouldFoldEntriesIntoAccounts() {
+        assertThat(ledgerService.projectPending()).isEqualTo(3);
+
+        // missing accounts are created by the projection
+        assertThat(userAccountRepository.findByUsernameAndCurrencyCode(USERNAME, "usd").get().getBalanceMinor()).isEqualTo(6000L);
+        assertThat(userAccountRepository.findByUsernameAndCurrencyCode(USERNAME, "eur").get().getBalanceMinor()).isEqualTo(2000L);
+        assertThat(ledgerService.pendingBalances(USERNAME)).isEmpty();
+        assertThat(ledgerService.projectPending()).isZero();
+    }
+
+    @Test
+    void close_ShouldFoldPendingEntriesAndRecordClosingEntry() {
+        UserAccount account = userAccountRepository.findByUsernameAndCurrencyCode(USERNAME, "usd").get();
+
+        assertThat(ledgerService.close(account)).isEqualTo(6000L);
+        assertThat(ledgerService.pendingBalance(USERNAME, "usd")).isZero();
+        assertThat(ledgerEntryRepository.findByUsernameOrderByIdAsc(USERNAME))
+                .extracting(LedgerEntry::getType)
+                .containsExactly(LedgerEntryType.DEPOSIT, LedgerEntryType.TRANSFER_OUT,
+                        LedgerEntryType.TRANSFER_IN, LedgerEntryType.CLOSE);
+    }
+
+    @Test
+    void replay_ShouldRebuildBalancesFromHistory() {
+        ledgerService.projectPending();
+        ledgerService.record(USERNAME, "usd", LedgerEntryType.ADJUSTMENT, 1500L, null);
+
+        Map<String, Long> balances = ledgerService.replay(USERNAME);
+
+        assertThat(balances).containsEntry("usd", 7500L).containsEntry("eur", 2000L);
+    }
+}
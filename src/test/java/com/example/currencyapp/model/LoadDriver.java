@@ -0,0 +1,113 @@
+package com.example.currencyapp.model;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+// closed-loop http load: every connection sends its next request as soon as the previous one completes
+final class LoadDriver {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final int connections;
+    private final LongFunction<HttpRequest> requests;
+
+    LoadDriver(int connections, LongFunction<HttpRequest> requests) {
+        this.connections = connections;
+        this.requests = requests;
+    }
+
+    Result run(Duration warmup, Duration measurement) {
+        drive(warmup, null);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Timer latency = Timer.builder("loadtest.requests")
+                .publishPercentiles(0.99)
+                .distributionStatisticExpiry(measurement.multipliedBy(2))
+                .register(registry);
+        long errors = drive(measurement, latency);
+
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        double p99 = 0;
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            p99 = percentile.value(TimeUnit.MILLISECONDS);
+        }
+        return new Result(connections, snapshot.count() / (double) measurement.toSeconds(), p99, errors);
+    }
+
+    private long drive(Duration duration, Timer latency) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<CompletableFuture<Void>> loops = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            loops.add(loop(deadline, sequence, errors, latency));
+        }
+        CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+        return errors.get();
+    }
+
+    private CompletableFuture<Void> loop(long deadline, AtomicLong sequence, AtomicLong errors, Timer latency) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long started = System.nanoTime();
+        return client.sendAsync(requests.apply(sequence.getAndIncrement()), HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    } else if (latency != null) {
+                        latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(deadline, sequence, errors, latency));
+    }
+
+    static final class Result {
+
+        private final int connections;
+        private final double throughput;
+        private final double p99Millis;
+        private final long errors;
+
+        Result(int connections, double throughput, double p99Millis, long errors) {
+            this.connections = connections;
+            this.throughput = throughput;
+            this.p99Millis = p99Millis;
+            this.errors = errors;
+        }
+
+        double getThroughput() {
+            return throughput;
+        }
+
+        double getP99Millis() {
+            return p99Millis;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d connections: %.0f requests/s, p99 %.1f ms, %d errors",
+                    connections, throughput, p99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MinorUnitsTest {
+
+    @Test
+    void scale_ShouldFollowCurrencyFractionDigits() {
+        assertThat(MinorUnits.scale("usd")).isEqualTo(2);
+        assertThat(MinorUnits.scale("JPY")).isEqualTo(0);
+        assertThat(MinorUnits.scale("bhd")).isEqualTo(3);
+
+        // crypto and metals are not iso currencies with a minor unit
+        assertThat(MinorUnits.scale("btc")).isEqualTo(8);
+        assertThat(MinorUnits.scale("xau")).isEqualTo(8);
+    }
+
+    @Test
+    void toMinor_ShouldRoundToCurrencyScale() {
+        assertThat(MinorUnits.toMinor(new BigDecimal("10.005"), "usd", RoundingMode.HALF_EVEN)).isEqualTo(1000L);
+        assertThat(MinorUnits.toMinor(new BigDecimal("10.005"), "usd", RoundingMode.HALF_UP)).isEqualTo(1001L);
+        assertThat(MinorUnits.toMinor(new BigDecimal("1234"), "jpy", RoundingMode.HALF_EVEN)).isEqualTo(1234L);
+    }
+
+    @Test
+    void toDecimal_ShouldBeExact() {
+        // 0.1 + 0.2 in minor units has no drift
+        long sum = MinorUnits.toMinor(new BigDecimal("0.1"), "usd", RoundingMode.UNNECESSARY)
+                + MinorUnits.toMinor(new BigDecimal("0.2"), "usd", RoundingMode.UNNECESSARY);
+        assertThat(MinorUnits.toDecimal(sum, "usd")).isEqualTo(new BigDecimal("0.30"));
+    }
+
+    @Test
+    void convert_ShouldRescaleBetweenCurrencies() {
+        assertThat(MinorUnits.convert(10000L, "usd", "jpy", 142.37, RoundingMode.HALF_EVEN)).isEqualTo(14237L);
+        assertThat(MinorUnits.convert(14237L, "jpy", "usd", 0.0070239, RoundingMode.HALF_EVEN)).isEqualTo(10000L);
+        assertThat(MinorUnits.convert(1L, "usd", "eur", 0.85, RoundingMode.DOWN)).isEqualTo(0L);
+    }
+
+    @Test
+    void convert_FastPathShouldMatchExactArithmetic() {
+        Random random = new Random(42);
+        RoundingMode[] modes = {RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN,
+                RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR};
+
+        for (int i = 0; i < 100_000; i++) {
+            long minor = random.nextInt(2_000_000_000) - 1_000_000_000L;
+            double rate = Math.round(random.nextDouble() * 200 * 1e6) / 1e6;
+            RoundingMode mode = modes[i % modes.length];
+
+            long expected = BigDecimal.valueOf(minor).multiply(BigDecimal.valueOf(rate))
+                    .movePointLeft(2).setScale(0, mode).longValueExact();
+            assertThat(MinorUnits.convert(minor, "usd", "jpy", rate, mode)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void toMinor_ShouldRejectOverflow() {
+        assertThrows(ArithmeticException.class,
+                () -> MinorUnits.toMinor(new BigDecimal("1e30"), "usd", RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void isValidAmount_ShouldRejectWhatToMinorWouldRoundOrOverflow() {
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("10.50"), "usd")).isTrue();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("10.500"), "usd")).isTrue();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("1E+3"), "jpy")).isTrue();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("0.001"), "usd")).isFalse();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("1.5"), "jpy")).isFalse();
+        assertThat(MinorUnits.isValidAmount(BigDecimal.ZERO, "usd")).isFalse();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("-1"), "usd")).isFalse();
+        assertThat(MinorUnits.isValidAmount(new BigDecimal("1e30"), "usd")).isFalse();
+        assertThat(MinorUnits.isValidAmount(null, "usd")).isFalse();
+
+        // the largest accepted amount still converts exactly
+        BigDecimal largest = new BigDecimal("9999999999999999.99");
+        assertThat(MinorUnits.isValidAmount(largest, "usd")).isTrue();
+        assertThat(MinorUnits.toMinor(largest, "usd", RoundingMode.UNNECESSARY)).isEqualTo(999999999999999999L);
+        assertThat(MinorUnits.isValidAmount(largest.add(new BigDecimal("0.01")), "usd")).isFalse();
+    }
+
+    @Test
+    void isValidBalance_ShouldAllowZero() {
+        assertThat(MinorUnits.isValidBalance(BigDecimal.ZERO, "usd")).isTrue();
+        assertThat(MinorUnits.isValidBalance(new BigDecimal("-0.01"), "usd")).isFalse();
+    }
+}
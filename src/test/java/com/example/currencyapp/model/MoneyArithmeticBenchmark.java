@@ -0,0 +1,113 @@
+package com.example.currencyapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.MoneyArithmeticBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final int AMOUNTS = 1024;
+    private static final double RATE = 0.9187;
+
+    private double[] doubleAmounts;
+    private long[] minorAmounts;
+    private BigDecimal[] decimalAmounts;
+    private int cursor;
+
+    private double doubleFrom;
+    private double doubleTo;
+    private long minorFrom;
+    private long minorTo;
+
+    @Setup
+    public void setUp() {
+        doubleAmounts = new double[AMOUNTS];
+        minorAmounts = new long[AMOUNTS];
+        decimalAmounts = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            BigDecimal amount = BigDecimal.valueOf(1 + (i * 7919L) % 50000, 2);
+            decimalAmounts[i] = amount;
+            doubleAmounts[i] = amount.doubleValue();
+            minorAmounts[i] = MinorUnits.toMinor(amount, "usd", RoundingMode.HALF_EVEN);
+        }
+        doubleFrom = 1_000_000_000.0;
+        minorFrom = 100_000_000_000L;
+    }
+
+    private int next() {
+        int index = cursor;
+        cursor = (index + 1) & (AMOUNTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double depositDouble() {
+        doubleTo += doubleAmounts[next()];
+        return doubleTo;
+    }
+
+    @Benchmark
+    public long depositMinor() {
+        minorTo += minorAmounts[next()];
+        return minorTo;
+    }
+
+    @Benchmark
+    public double transferDouble() {
+        double amount = doubleAmounts[next()];
+        if (doubleFrom < amount) {
+            return doubleFrom;
+        }
+        doubleFrom -= amount;
+        doubleTo += amount * RATE;
+        return doubleTo;
+    }
+
+    @Benchmark
+    public long transferMinor() {
+        long amount = minorAmounts[next()];
+        if (minorFrom < amount) {
+            return minorFrom;
+        }
+        minorFrom -= amount;
+        minorTo += MinorUnits.convert(amount, "usd", "eur", RATE, RoundingMode.HALF_EVEN);
+        return minorTo;
+    }
+
+    @Benchmark
+    public long parseAmountToMinor() {
+        return MinorUnits.toMinor(decimalAmounts[next()], "usd", RoundingMode.HALF_EVEN);
+    }
+
+    @Benchmark
+    public BigDecimal formatMinorAmount() {
+        return MinorUnits.toDecimal(minorAmounts[next()], "usd");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyArithmeticBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PortfolioCacheTest {
+
+    private final PortfolioCache cache = new PortfolioCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Map<String, BigDecimal> load(String username) {
+        loads.incrementAndGet();
+        return Map.of("usd", new BigDecimal(loads.get()));
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndCountHits() {
+        cache.get("alice", this::load);
+        cache.get("alice", this::load);
+        cache.get("alice", this::load);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        cache.get("alice", this::load);
+        cache.invalidate("alice");
+
+        assertThat(cache.get("alice", this::load)).containsEntry("usd", new BigDecimal(2));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_DuringLoad_ShouldNotCacheStaleResult() {
+        // a write commits while the portfolio is being read
+        Map<String, BigDecimal> stale = cache.get("alice", username -> {
+            cache.invalidate(username);
+            return load(username);
+        });
+
+        assertThat(stale).containsEntry("usd", BigDecimal.ONE);
+        assertThat(cache.get("alice", this::load)).containsEntry("usd", new BigDecimal(2));
+    }
+
+    @Test
+    void expiredEntries_ShouldBeReloaded() {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ZERO);
+
+        cache.get("alice", this::load);
+        cache.get("alice", this::load);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void size_ShouldStayWithinLimit() {
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+
+        cache.get("alice", this::load);
+        cache.get("bob", this::load);
+        cache.get("carol", this::load);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+}
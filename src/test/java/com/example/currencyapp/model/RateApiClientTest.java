@@ -0,0 +1,103 @@
+package com.example.currencyapp.model;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateApiClientTest {
+
+    private final RateApiClient client =
+            new RateApiClient(Duration.ofSeconds(2), Duration.ofSeconds(5), 2, Duration.ofMillis(20));
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> body = new AtomicReference<>();
+    private HttpServer stubApi;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubApi = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubApi.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            if (status.get() != 200) {
+                exchange.sendResponseHeaders(status.get(), -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        stubApi.start();
+        url = "http://localhost:" + stubApi.getAddress().getPort() + "/usd.json";
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubApi.stop(0);
+    }
+
+    @Test
+    void testFetch_ParsesPayload() throws Exception {
+        body.set("{\"date\":\"2025-04-26\",\"usd\":{\"usd\":1,\"eur\":0.9}}");
+
+        RateApiClient.Response response = client.fetch(url, null, null);
+
+        assertEquals(0.9, response.getPayload().toMap().get("eur"));
+        assertEquals(1, hits.get());
+    }
+
+    // a server error is worth retrying, a bad body would only be downloaded again
+    @Test
+    void testFetch_RetriesServerErrors() {
+        status.set(503);
+
+        RateApiClient.StatusException e = assertThrows(RateApiClient.StatusException.class,
+                () -> client.fetch(url, null, null));
+
+        assertEquals(503, e.getStatus());
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void testFetch_DoesNotRetryMalformedPayload() {
+        body.set("{\"usd\":{\"eur\":0.9,,}");
+
+        assertThrows(RateApiClient.PayloadException.class, () -> client.fetch(url, null, null));
+        assertEquals(1, hits.get());
+    }
+
+    // the body is read and parsed on the caller's executor, not on the http client's threads
+    @Test
+    void testFetchAsync_ReadsBodyOnGivenExecutor() {
+        body.set("{\"date\":\"2025-04-26\",\"usd\":{\"usd\":1,\"eur\":0.9}}");
+        ExecutorService bodyExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "body-reader"));
+        AtomicReference<String> parsedOn = new AtomicReference<>();
+
+        try {
+            RateApiClient.Response response = client.fetchAsync(url, null, null, runnable -> bodyExecutor.execute(() -> {
+                parsedOn.set(Thread.currentThread().getName());
+                runnable.run();
+            })).join();
+
+            assertEquals(0.9, response.getPayload().toMap().get("eur"));
+            assertEquals("body-reader", parsedOn.get());
+        } finally {
+            bodyExecutor.shutdownNow();
+        }
+    }
+}
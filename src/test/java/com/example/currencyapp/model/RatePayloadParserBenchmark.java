@@ -0,0 +1,86 @@
+package com.example.currencyapp.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// parses the recorded usd payload with the old string/tree/map path and the streaming parser
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.RatePayloadParserBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatePayloadParserBenchmark {
+
+    private static final Gson gson = new Gson();
+
+    private byte[] payload;
+    private byte[] gzippedPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = RatePayloadParserBenchmark.class.getResourceAsStream("/rates/usd-2025-04-26.json")) {
+            payload = in.readAllBytes();
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        gzippedPayload = compressed.toByteArray();
+    }
+
+    @Benchmark
+    public HashMap<String, Double> stringTreeAndMap() throws IOException {
+        StringBuilder result = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.append(line);
+            }
+        }
+        JsonObject jsonObject = gson.fromJson(result.toString(), JsonObject.class);
+        JsonObject rates = jsonObject.getAsJsonObject("usd");
+        return gson.fromJson(rates, new TypeToken<HashMap<String, Double>>() {}.getType());
+    }
+
+    @Benchmark
+    public RatePayload streaming() throws IOException {
+        return RatePayloadParser.parse(new ByteArrayInputStream(payload), false);
+    }
+
+    @Benchmark
+    public RatePayload streamingGzip() throws IOException {
+        return RatePayloadParser.parse(new ByteArrayInputStream(gzippedPayload), true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RatePayloadParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatePayloadParserTest {
+
+    private static final String FIXTURE = "/rates/usd-2025-04-26.json";
+
+    // recorded payload should decode every usd rate
+    @Test
+    void parse_RecordedPayload() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            RatePayload payload = RatePayloadParser.parse(in, false);
+
+            assertNotNull(payload);
+            assertEquals(272, payload.size());
+            Map<String, Double> rates = payload.toMap();
+            assertEquals(1.0, rates.get("usd"));
+            assertTrue(rates.containsKey("eur"));
+        }
+    }
+
+    // gzip encoded responses should give the same result
+    @Test
+    void parse_GzippedPayload() throws IOException {
+        byte[] plain;
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            plain = in.readAllBytes();
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(plain);
+        }
+
+        RatePayload fromPlain = RatePayloadParser.parse(new ByteArrayInputStream(plain), false);
+        RatePayload fromGzip = RatePayloadParser.parse(new ByteArrayInputStream(compressed.toByteArray()), true);
+
+        assertEquals(fromPlain.toMap(), fromGzip.toMap());
+    }
+
+    // usd object may come after other fields, non-numeric entries are skipped
+    @Test
+    void parse_SkipsUnrelatedFields() throws IOException {
+        String json = "{\"meta\":{\"usd\":5},\"date\":\"2025-04-26\",\"usd\":{\"eur\":0.9,\"bad\":null,\"gbp\":0.8}}";
+
+        RatePayload payload = RatePayloadParser.parse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), false);
+
+        assertEquals(Map.of("eur", 0.9, "gbp", 0.8), payload.toMap());
+    }
+
+    // missing usd object is reported as null
+    @Test
+    void parse_MissingUsdObject() throws IOException {
+        String json = "{\"date\":\"2025-04-26\",\"eur\":{\"usd\":1.1}}";
+
+        assertNull(RatePayloadParser.parse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), false));
+    }
+}
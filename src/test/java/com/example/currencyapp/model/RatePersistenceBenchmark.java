@@ -0,0 +1,165 @@
+package com.example.currencyapp.model;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// compares the old per-row save() path with the batched replace against embedded H2
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.RatePersistenceBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatePersistenceBenchmark {
+
+    private static final int CURRENCIES = 300;
+    private static final int BATCH_SIZE = 100;
+
+    private Connection connection;
+    private Map<String, Double> rates;
+    private int day;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:rates;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS currency_rates "
+                    + "(rate_date DATE, currency_code VARCHAR(255), rate DOUBLE, PRIMARY KEY (rate_date, currency_code))");
+        }
+        rates = new LinkedHashMap<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            rates.put(String.format("C%03d", i), 0.5 + i * 0.37);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private LocalDate nextDate() {
+        return LocalDate.of(2025, 1, 1).plusDays(day++ % 28);
+    }
+
+    @Benchmark
+    public void perRowSave(Statements counter) throws SQLException {
+        LocalDate date = nextDate();
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement find = connection.prepareStatement("SELECT currency_code FROM currency_rates WHERE rate_date = ?");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM currency_rates WHERE rate_date = ? AND currency_code = ?");
+             PreparedStatement select = connection.prepareStatement("SELECT rate_date, currency_code, rate FROM currency_rates WHERE rate_date = ? AND currency_code = ?");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO currency_rates (rate_date, currency_code, rate) VALUES (?, ?, ?)");
+             PreparedStatement update = connection.prepareStatement("UPDATE currency_rates SET rate = ? WHERE rate_date = ? AND currency_code = ?")) {
+
+            find.setObject(1, date);
+            counter.statements++;
+            try (ResultSet existing = find.executeQuery()) {
+                while (existing.next()) {
+                    delete.setObject(1, date);
+                    delete.setString(2, existing.getString(1));
+                    delete.executeUpdate();
+                    counter.statements++;
+                }
+            }
+
+            for (Map.Entry<String, Double> entry : rates.entrySet()) {
+                select.setObject(1, date);
+                select.setString(2, entry.getKey());
+                counter.statements++;
+                boolean exists;
+                try (ResultSet row = select.executeQuery()) {
+                    exists = row.next();
+                }
+                if (exists) {
+                    update.setDouble(1, entry.getValue());
+                    update.setObject(2, date);
+                    update.setString(3, entry.getKey());
+                    update.executeUpdate();
+                } else {
+                    insert.setObject(1, date);
+                    insert.setString(2, entry.getKey());
+                    insert.setDouble(3, entry.getValue());
+                    insert.executeUpdate();
+                }
+                counter.statements++;
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public void batchedReplace(Statements counter) throws SQLException {
+        LocalDate date = nextDate();
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM currency_rates WHERE rate_date = ?");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO currency_rates (rate_date, currency_code, rate) VALUES (?, ?, ?)")) {
+
+            delete.setObject(1, date);
+            delete.executeUpdate();
+            counter.statements++;
+
+            int pending = 0;
+            for (Map.Entry<String, Double> entry : rates.entrySet()) {
+                insert.setObject(1, date);
+                insert.setString(2, entry.getKey());
+                insert.setDouble(3, entry.getValue());
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    counter.statements++;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+                counter.statements++;
+            }
+        }
+        connection.commit();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RatePersistenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
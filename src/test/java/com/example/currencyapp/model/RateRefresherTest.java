@@ -0,0 +1,48 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateRefresherTest {
+
+    private final CurrencyService currencyService = mock(CurrencyService.class);
+    private final RateRefresher rateRefresher = new RateRefresher(currencyService);
+
+    // upstream tags rates by utc day, so the prefetch asks for that day whatever the local zone
+    @Test
+    void prefetch_ShouldRequestTheUtcDay() {
+        LocalDate before = LocalDate.now(ZoneOffset.UTC);
+
+        rateRefresher.prefetchPublishedDay();
+
+        LocalDate after = LocalDate.now(ZoneOffset.UTC);
+        verify(currencyService).prefetchRates(argThat(date -> !date.isBefore(before) && !date.isAfter(after)));
+    }
+
+    @Test
+    void prefetch_ShouldRunAfterUpstreamPublishesInUtc() throws Exception {
+        Scheduled scheduled = RateRefresher.class.getMethod("prefetchPublishedDay").getAnnotation(Scheduled.class);
+        assertEquals("UTC", scheduled.zone());
+
+        String cron = scheduled.cron().substring(scheduled.cron().indexOf(':') + 1, scheduled.cron().length() - 1);
+        ZonedDateTime midnight = ZonedDateTime.of(2025, 4, 26, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime first = CronExpression.parse(cron).next(midnight.minusSeconds(1));
+        assertEquals(midnight, first);
+        assertTrue(CronExpression.parse(cron).next(midnight.withHour(3)).isAfter(midnight.plusHours(23)));
+    }
+
+    @Test
+    void prefetch_ShouldNotPropagateFailures() {
+        doThrow(new IllegalStateException("boom")).when(currencyService).prefetchRates(any());
+
+        assertDoesNotThrow(rateRefresher::prefetchPublishedDay);
+    }
+}
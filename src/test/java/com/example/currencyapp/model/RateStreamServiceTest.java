@@ -0,0 +1,116 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class RateStreamServiceTest {
+
+    private static final RateSnapshot V1 = new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", 0.9));
+    private static final RateSnapshot V2 = new RateSnapshot(LocalDate.now(), 2, Map.of("usd", 1.0, "eur", 0.95));
+    private static final RateSnapshot V3 = new RateSnapshot(LocalDate.now(), 3, Map.of("usd", 1.0, "eur", 0.97));
+
+    @Mock
+    private CurrencyService currencyService;
+
+    private RateStreamService rateStreamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rateStreamService = new RateStreamService(currencyService, 2, false);
+        CurrencyController controller = new CurrencyController();
+        ReflectionTestUtils.setField(controller, "rateStreamService", rateStreamService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateStreamService.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotThenDeltas() throws Exception {
+        when(currencyService.getSnapshot()).thenReturn(V1);
+        when(currencyService.getCurrentSnapshot()).thenReturn(V1);
+
+        MockHttpServletResponse response = subscribe();
+        awaitContent(response, "id:1");
+        rateStreamService.onSnapshot(new RateSnapshotEvent(V1, V2));
+
+        String events = awaitContent(response, "id:2");
+        assertTrue(events.contains("event:snapshot"));
+        assertTrue(events.contains("event:delta"));
+        assertTrue(events.contains("\"eur\":0.95"));
+    }
+
+    // a snapshot installed while the client subscribes must not leave it on the old rates
+    @Test
+    void subscribe_RacingSnapshotShouldResendFullRates() throws Exception {
+        when(currencyService.getSnapshot()).thenAnswer(invocation -> {
+            rateStreamService.onSnapshot(new RateSnapshotEvent(V1, V2));
+            return V1;
+        });
+        when(currencyService.getCurrentSnapshot()).thenReturn(V2);
+
+        MockHttpServletResponse response = subscribe();
+        awaitContent(response, "id:2");
+        rateStreamService.onSnapshot(new RateSnapshotEvent(V2, V3));
+
+        String events = awaitContent(response, "id:3");
+        assertFalse(events.contains("id:1"));
+        assertTrue(events.contains("\"eur\":0.95"));
+        assertTrue(events.contains("\"eur\":0.97"));
+        assertEquals(1, rateStreamService.getSubscriberCount());
+    }
+
+    // an event for an older version than the client already has must not roll it back
+    @Test
+    void onSnapshot_StaleEventShouldBeDropped() throws Exception {
+        when(currencyService.getSnapshot()).thenReturn(V3);
+        when(currencyService.getCurrentSnapshot()).thenReturn(V3);
+
+        MockHttpServletResponse response = subscribe();
+        awaitContent(response, "id:3");
+        rateStreamService.onSnapshot(new RateSnapshotEvent(V1, V2));
+        rateStreamService.heartbeat();
+
+        String events = awaitContent(response, "keep-alive");
+        assertFalse(events.contains("id:2"));
+        assertFalse(events.contains("\"eur\":0.95"));
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        return mockMvc.perform(get("/currencies/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    // events are sent from the dispatch pool, poll until the expected one shows up
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
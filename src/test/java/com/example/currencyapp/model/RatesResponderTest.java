@@ -0,0 +1,63 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatesResponderTest {
+
+    private final RateSnapshot snapshot = new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", 0.85));
+
+    // rates may change at every revalidation run, so clients must not keep them past the next one
+    @Test
+    void respond_MaxAgeShouldNotOutliveNextRevalidation() {
+        RatesResponder responder = new RatesResponder(new ObjectMapper(), "0 */5 * * * *");
+
+        ResponseEntity<byte[]> response = responder.respond(snapshot, null, null, null);
+
+        String cacheControl = response.getHeaders().getCacheControl();
+        assertTrue(cacheControl.contains("must-revalidate"), cacheControl);
+        assertTrue(cacheControl.contains("private"), cacheControl);
+        long maxAge = Long.parseLong(cacheControl.replaceAll(".*max-age=(\\d+).*", "$1"));
+        assertTrue(maxAge <= 300, cacheControl);
+    }
+
+    @Test
+    void respond_NotModifiedShouldVaryByAcceptEncoding() {
+        RatesResponder responder = new RatesResponder(new ObjectMapper(), "0 5 * * * *");
+        String etag = responder.respond(snapshot, null, null, null).getHeaders().getETag();
+
+        ResponseEntity<byte[]> response = responder.respond(snapshot, etag, null, "gzip");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertTrue(response.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void respond_ShouldNotGzipWhenClientRefusesIt() {
+        RatesResponder responder = new RatesResponder(new ObjectMapper(), "0 5 * * * *");
+
+        ResponseEntity<byte[]> refused = responder.respond(snapshot, null, null, "gzip;q=0, identity");
+        ResponseEntity<byte[]> accepted = responder.respond(snapshot, null, null, "deflate, GZIP;q=0.5");
+
+        assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", accepted.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+        assertTrue(RatesResponder.acceptsGzip("gzip, deflate"));
+        assertTrue(RatesResponder.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertFalse(RatesResponder.acceptsGzip("gzip;q=0"));
+        assertFalse(RatesResponder.acceptsGzip("gzip; q=0.000"));
+        assertFalse(RatesResponder.acceptsGzip("x-gzip-not, deflate"));
+        assertFalse(RatesResponder.acceptsGzip(null));
+    }
+}
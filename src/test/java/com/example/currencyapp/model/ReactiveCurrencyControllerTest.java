@@ -0,0 +1,139 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ReactiveCurrencyControllerTest {
+
+    @Mock
+    private ReactiveRateService reactiveRateService;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    private WebTestClient client;
+    private RateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshot = new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", 0.85));
+        when(reactiveRateService.getSnapshot()).thenReturn(Mono.just(snapshot));
+        ReactiveCurrencyController controller = new ReactiveCurrencyController(reactiveRateService, currencyService,
+                new RatesResponder(new ObjectMapper(), "0 5 * * * *"));
+        client = WebTestClient.bindToController(controller).build();
+    }
+
+    @Test
+    void getCurrencies_ShouldReturnRatesWithCachingHeaders() {
+        client.get().uri("/currencies")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectHeader().valueMatches(HttpHeaders.CACHE_CONTROL, ".*private.*")
+                .expectBody()
+                .jsonPath("$.eur").isEqualTo(0.85);
+    }
+
+    @Test
+    void getCurrencies_WithMatchingEtag_ShouldReturnNotModified() {
+        String etag = client.get().uri("/currencies")
+                .exchange()
+                .returnResult(byte[].class)
+                .getResponseHeaders().getETag();
+
+        client.get().uri("/currencies")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+    }
+
+    // no snapshot in memory, upstream or the database
+    @Test
+    void getCurrencies_WithoutRates_ShouldReturnServiceUnavailable() {
+        when(reactiveRateService.getSnapshot()).thenReturn(Mono.empty());
+
+        client.get().uri("/currencies")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-store")
+                .expectHeader().doesNotExist(HttpHeaders.ETAG);
+    }
+
+    // the servlet and reactive stacks agree that an empty snapshot is unavailable
+    @Test
+    void getCurrencies_WithEmptySnapshot_ShouldReturnServiceUnavailable() {
+        when(reactiveRateService.getSnapshot()).thenReturn(Mono.just(new RateSnapshot(LocalDate.now(), 2, Map.of())));
+
+        client.get().uri("/currencies")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-store");
+    }
+
+    @Test
+    void getExchangeRate_WithValidCurrencyPair_ShouldReturnExchangeRate() {
+        client.post().uri("/currencies")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("fromCurrency", "USD", "toCurrency", "EUR"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.fromCurrency").isEqualTo("usd")
+                .jsonPath("$.toCurrency").isEqualTo("eur")
+                .jsonPath("$.rate").isEqualTo(0.85);
+    }
+
+    @Test
+    void getExchangeRate_WithInvalidCurrencyPair_ShouldReturnBadRequest() {
+        client.post().uri("/currencies")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("fromCurrency", "USD", "toCurrency", "XYZ"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid currency pair: 'usd' to 'xyz'.");
+    }
+
+    @Test
+    void getExchangeRate_WithMissingCurrency_ShouldReturnBadRequest() {
+        client.post().uri("/currencies")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("fromCurrency", "USD"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Both 'fromCurrency' and 'toCurrency' are required.");
+    }
+
+    // the batch is converted against the snapshot the reactive service resolved
+    @Test
+    void getExchangeRates_WithBatch_ShouldUseResolvedSnapshot() {
+        when(currencyService.convertBatch(anyList(), eq(snapshot))).thenReturn(new CurrencyBatchResponse(
+                snapshot.getDate().toString(), List.of(new CurrencyBatchResult("usd", "eur", 0.85, 10.0))));
+
+        client.post().uri("/currencies/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("fromCurrency", "usd", "toCurrency", "eur", "amount", 10.0)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[0].rate").isEqualTo(0.85);
+    }
+}
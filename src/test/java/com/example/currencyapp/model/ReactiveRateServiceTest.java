@@ -0,0 +1,85 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveRateServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private CurrencyService currencyService;
+
+    private ReactiveRateService reactiveRateService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reactiveRateService = new ReactiveRateService(currencyService);
+    }
+
+    @Test
+    void getSnapshot_ServedFromMemoryWithoutFetching() {
+        RateSnapshot loaded = new RateSnapshot(LocalDate.now(), 1, Map.of("eur", 0.9));
+        when(currencyService.getSnapshotIfLoaded()).thenReturn(loaded);
+
+        assertSame(loaded, reactiveRateService.getSnapshot().block(TIMEOUT));
+        verify(currencyService, never()).fetchSnapshotAsync(any(LocalDate.class), any(Executor.class));
+    }
+
+    // concurrent misses should share one upstream fetch
+    @Test
+    void getSnapshot_ConcurrentMissesShareOneFetch() {
+        CompletableFuture<RateSnapshot> fetch = new CompletableFuture<>();
+        when(currencyService.fetchSnapshotAsync(any(LocalDate.class), any(Executor.class))).thenReturn(fetch);
+
+        var first = reactiveRateService.getSnapshot().toFuture();
+        var second = reactiveRateService.getSnapshot().toFuture();
+        RateSnapshot fetched = new RateSnapshot(LocalDate.now(), 1, Map.of("eur", 0.9));
+        fetch.complete(fetched);
+
+        assertSame(fetched, first.join());
+        assertSame(fetched, second.join());
+        verify(currencyService, times(1)).fetchSnapshotAsync(any(LocalDate.class), any(Executor.class));
+    }
+
+    // an empty fetch should fall back to the stored rates
+    @Test
+    void getSnapshot_FallsBackToStoredRatesWhenFetchIsEmpty() {
+        RateSnapshot stored = new RateSnapshot(LocalDate.now().minusDays(1), 1, Map.of("eur", 0.95));
+        when(currencyService.fetchSnapshotAsync(any(LocalDate.class), any(Executor.class)))
+                .thenReturn(CompletableFuture.completedFuture(new RateSnapshot(LocalDate.now(), 2, Map.of())));
+        when(currencyService.loadStoredSnapshot(any(LocalDate.class))).thenReturn(stored);
+
+        assertSame(stored, reactiveRateService.getSnapshot().block(TIMEOUT));
+
+        // within the retry window the last snapshot is served without another fetch
+        when(currencyService.getCurrentSnapshot()).thenReturn(stored);
+        assertSame(stored, reactiveRateService.getSnapshot().block(TIMEOUT));
+        verify(currencyService, times(1)).fetchSnapshotAsync(any(LocalDate.class), any(Executor.class));
+    }
+
+    @Test
+    void getSnapshot_EmptyWhenNoRatesAnywhere() {
+        when(currencyService.fetchSnapshotAsync(any(LocalDate.class), any(Executor.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("upstream down")));
+
+        assertNull(reactiveRateService.getSnapshot().block(TIMEOUT));
+
+        // a cold start with nothing to serve should still back off from the upstream
+        assertNull(reactiveRateService.getSnapshot().block(TIMEOUT));
+        verify(currencyService, times(1)).fetchSnapshotAsync(any(LocalDate.class), any(Executor.class));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.currencyapp.model;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// an exchange rate quote through CurrencyController with logging at info into a non-blocking async appender;
+// legacyQuote adds back the three info lines the request used to write, compare gc.alloc.rate.norm between them
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.RequestLoggingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingBenchmark.class);
+
+    private final LogSampler logSampler = new LogSampler(Duration.ofSeconds(1));
+
+    private AsyncAppender appender;
+    private CurrencyService currencyService;
+    private CurrencyController currencyController;
+    private CurrencyRequest request;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        // same layout as logback-spring.xml, written to a discarding stream so only the caller side is measured
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m %kvp%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        sink.start();
+
+        appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(sink);
+        appender.start();
+
+        for (Class<?> type : List.of(CurrencyController.class, CurrencyService.class, RequestLoggingBenchmark.class)) {
+            ch.qos.logback.classic.Logger target = context.getLogger(type);
+            target.setLevel(Level.INFO);
+            target.setAdditive(false);
+            target.addAppender(appender);
+        }
+
+        currencyService = new CurrencyService();
+        ((AtomicReference<RateSnapshot>) ReflectionTestUtils.getField(currencyService, "snapshot"))
+                .set(new RateSnapshot(LocalDate.now(), 1, Map.of("usd", 1.0, "eur", 0.9187)));
+        currencyController = new CurrencyController();
+        ReflectionTestUtils.setField(currencyController, "currencyService", currencyService);
+
+        request = new CurrencyRequest();
+        request.setFromCurrency("USD");
+        request.setToCurrency("EUR");
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> quote() {
+        return currencyController.getExchangeRate(request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> legacyQuote() {
+        logger.info("Calculating exchange rate from {} to {}", "usd", "eur");
+        logger.info("Calculating rate from {} to {}", "usd", "eur");
+        ResponseEntity<?> response = currencyController.getExchangeRate(request);
+        logger.info("Exchange rate from {} to {} is: {}", "usd", "eur", 0.9187);
+        return response;
+    }
+
+    @Benchmark
+    public boolean sampledInfo() {
+        if (logger.isInfoEnabled() && logSampler.sample()) {
+            logger.atInfo().addKeyValue("from", "usd")
+                    .addKeyValue("to", "eur")
+                    .addKeyValue("skipped", logSampler.drainSkipped())
+                    .log("Exchange rate calculated");
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        logger.atDebug().addKeyValue("from", "usd").addKeyValue("to", "eur").log("Exchange rate requested");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestLoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.currencyapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// jackson round trips of the response bodies returned by /currencies and /accounts
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.ResponseSerializationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectWriter currencyWriter;
+    private ObjectReader currencyReader;
+    private ObjectWriter accountWriter;
+    private ObjectReader accountReader;
+
+    private CurrencyResponse currencyResponse;
+    private AccountResponse accountResponse;
+    private byte[] currencyJson;
+    private byte[] accountJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        currencyWriter = objectMapper.writerFor(CurrencyResponse.class);
+        currencyReader = objectMapper.readerFor(CurrencyResponse.class);
+        accountWriter = objectMapper.writerFor(AccountResponse.class);
+        accountReader = objectMapper.readerFor(AccountResponse.class);
+
+        currencyResponse = new CurrencyResponse("usd", "eur", 0.9187);
+
+        accountResponse = new AccountResponse("success", "Transfer successful");
+        accountResponse.addData("username", "testuser");
+        accountResponse.addData("fromAccount", "usd");
+        accountResponse.addData("toAccount", "eur");
+        accountResponse.addData("amountTransferred", new BigDecimal("91.87"));
+        accountResponse.addData("fromAccountBalance", new BigDecimal("900.00"));
+        accountResponse.addData("toAccountBalance", new BigDecimal("1091.87"));
+        accountResponse.addData("accounts", Map.of("usd", new BigDecimal("900.00"), "eur", new BigDecimal("1091.87")));
+
+        currencyJson = currencyWriter.writeValueAsBytes(currencyResponse);
+        accountJson = accountWriter.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] writeCurrencyResponse() throws IOException {
+        return currencyWriter.writeValueAsBytes(currencyResponse);
+    }
+
+    @Benchmark
+    public CurrencyResponse readCurrencyResponse() throws IOException {
+        return currencyReader.readValue(currencyJson);
+    }
+
+    @Benchmark
+    public byte[] writeAccountResponse() throws IOException {
+        return accountWriter.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public AccountResponse readAccountResponse() throws IOException {
+        return accountReader.readValue(accountJson);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
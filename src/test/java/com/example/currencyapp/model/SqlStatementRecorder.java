@@ -0,0 +1,32 @@
+package com.example.currencyapp.model;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// registered through hibernate.session_factory.statement_inspector to capture every sql statement hibernate prepares
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+}
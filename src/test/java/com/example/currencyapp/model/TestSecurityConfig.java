@@ -0,0 +1,45 @@
+package com.example.currencyapp.model;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// the app's own access rules with a github client registration so the oauth2 login config can start,
+// every MockMvc request arrives already signed in, the login flow itself is not under test
+@TestConfiguration(proxyBeanMethods = false)
+@Import(SecurityConfig.class)
+class TestSecurityConfig {
+
+    @Bean
+    ClientRegistrationRepository clientRegistrationRepository() {
+        return new InMemoryClientRegistrationRepository(CommonOAuth2Provider.GITHUB.getBuilder("github")
+                .clientId("test-client")
+                .clientSecret("test-secret")
+                .build());
+    }
+
+    @Bean
+    OAuth2AuthorizedClientService authorizedClientService(ClientRegistrationRepository clientRegistrationRepository) {
+        return new InMemoryOAuth2AuthorizedClientService(clientRegistrationRepository);
+    }
+
+    @Bean
+    MockMvcBuilderCustomizer signedInRequests() {
+        return builder -> builder.defaultRequest(get("/").with(request -> {
+            request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(new TestingAuthenticationToken("testuser", null, "ROLE_USER")));
+            return request;
+        }));
+    }
+}
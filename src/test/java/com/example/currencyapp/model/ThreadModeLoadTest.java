@@ -0,0 +1,132 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// deposits and valuations over HTTP at 5k concurrent connections, platform threads versus virtual threads
+// needs a JDK 21 and a file descriptor limit above 12k (client and server share the JVM)
+// run with: mvn -Pvirtual-threads test -Dtest=ThreadModeLoadTest -Dloadtest=true
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ThreadModeLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeLoadTest.class);
+
+    private static final int CONNECTIONS = 5000;
+    private static final int USERS = 1000;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+
+    // virtual threads may lose at most a fifth of the throughput and add at most half to p99,
+    // the extra 5 ms keeps scheduler noise on single-digit latencies from failing the run
+    private static final double MIN_THROUGHPUT_RATIO = 0.8;
+    private static final double MAX_P99_RATIO = 1.5;
+    private static final double P99_SLACK_MILLIS = 5;
+
+    // not a @Configuration, so component scans and test slices in this package do not pick it up
+    @EnableAutoConfiguration
+    @EnableScheduling
+    @Import({AccountController.class, AccountService.class, LedgerService.class, LedgerProjector.class,
+            UserDirectory.class, PortfolioCache.class, CurrencyService.class, RateApiClient.class,
+            RateRefresher.class, CurrencyRateBatchRepository.class})
+    static class LoadTestApplication {
+
+        @Bean
+        SecurityFilterChain openFilterChain(HttpSecurity http) throws Exception {
+            return http
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .csrf(csrf -> csrf.disable())
+                    .build();
+        }
+    }
+
+    @Test
+    void virtualThreads_ShouldMatchPlatformThreadsUnderLoad() throws Exception {
+        LoadDriver.Result platform = run("platform");
+        LoadDriver.Result virtual = run("virtual-threads");
+
+        logger.info("platform threads: {}", platform);
+        logger.info("virtual threads:  {}", virtual);
+
+        assertThat(platform.getErrors()).isZero();
+        assertThat(virtual.getErrors()).isZero();
+        assertThat(virtual.getThroughput()).isGreaterThanOrEqualTo(platform.getThroughput() * MIN_THROUGHPUT_RATIO);
+        assertThat(virtual.getP99Millis()).isLessThanOrEqualTo(platform.getP99Millis() * MAX_P99_RATIO + P99_SLACK_MILLIS);
+    }
+
+    private LoadDriver.Result run(String mode) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(LoadTestApplication.class)
+                .properties("server.port=0",
+                        "management.server.port=-1",
+                        "spring.datasource.url=jdbc:h2:mem:" + mode + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.com.example.currencyapp=WARN");
+        if (!"platform".equals(mode)) {
+            builder.profiles(mode);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return new LoadDriver(CONNECTIONS, sequence -> request(port, sequence)).run(WARMUP, MEASUREMENT);
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("load" + i));
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+
+        // today's rates come from the database so no upstream call is made
+        CurrencyRateRepository rates = context.getBean(CurrencyRateRepository.class);
+        rates.save(rate("USD", 1.0));
+        rates.save(rate("EUR", 0.9187));
+    }
+
+    private static CurrencyRate rate(String currencyCode, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setDate(LocalDate.now());
+        rate.setCurrencyCode(currencyCode);
+        rate.setRate(value);
+        return rate;
+    }
+
+    // alternate between a write (deposit) and a read (valuation) spread over all users
+    private static HttpRequest request(int port, long sequence) {
+        String username = "load" + (sequence % USERS);
+        if (sequence % 2 == 0) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/accounts"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + username + "\",\"amount\":1,\"deposit\":\"usd\"}"))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + port + "/accounts/valuation?username=" + username + "&target=eur"))
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.currencyapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// deposits and transfers through AccountService against embedded H2, with the ledger projector running
+// run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.currencyapp.model.TransferBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    // not a @Configuration, so component scans and test slices in this package do not pick it up
+    @EnableAutoConfiguration
+    @EnableScheduling
+    @Import({AccountService.class, LedgerService.class, LedgerProjector.class, UserDirectory.class, PortfolioCache.class,
+            CurrencyService.class, RateApiClient.class, CurrencyRateBatchRepository.class})
+    static class BenchmarkApplication {
+    }
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.com.example.currencyapp=WARN")
+                .run();
+
+        context.getBean(UserRepository.class).save(new User(USERNAME));
+        UserAccountRepository accounts = context.getBean(UserAccountRepository.class);
+        accounts.save(new UserAccount(USERNAME, "usd", 1_000_000_000_000L));
+        accounts.save(new UserAccount(USERNAME, "eur", 1_000_000_000_000L));
+
+        // today's rates come from the database so no upstream call is made
+        CurrencyRateRepository rates = context.getBean(CurrencyRateRepository.class);
+        rates.save(rate("USD", 1.0));
+        rates.save(rate("EUR", 0.9187));
+
+        accountService = context.getBean(AccountService.class);
+    }
+
+    private static CurrencyRate rate(String currencyCode, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setDate(LocalDate.now());
+        rate.setCurrencyCode(currencyCode);
+        rate.setRate(value);
+        return rate;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<AccountResponse> deposit() {
+        return accountService.handleDeposit(new DepositRequest(USERNAME, BigDecimal.ONE, "usd"));
+    }
+
+    @Benchmark
+    public ResponseEntity<AccountResponse> transfer() {
+        return accountService.handleTransfer(new TransferRequest(USERNAME, BigDecimal.ONE, "usd", "eur"));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseEntity<AccountResponse> contendedTransfer() {
+        return accountService.handleTransfer(new TransferRequest(USERNAME, BigDecimal.ONE, "usd", "eur"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
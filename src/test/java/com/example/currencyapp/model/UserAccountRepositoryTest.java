@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +18,14 @@ class UserAccountRepositoryTest {
     @Autowired
     private UserAccountRepository userAccountRepository;
 
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
     private UserAccount userAccount;
 
     @BeforeEach
     void setUp() {
-        userAccount = new UserAccount("testuser", "usd", 100.0);
+        userAccount = new UserAccount("testuser", "usd", 10000L);
         userAccountRepository.save(userAccount);
     }
 
@@ -35,7 +39,8 @@ class UserAccountRepositoryTest {
         assertThat(accounts).isNotEmpty();
         assertThat(accounts.get(0).getUsername()).isEqualTo("testuser");
         assertThat(accounts.get(0).getCurrencyCode()).isEqualTo("usd");
-        assertThat(accounts.get(0).getBalance()).isEqualTo(100.0);
+        assertThat(accounts.get(0).getBalanceMinor()).isEqualTo(10000L);
+        assertThat(accounts.get(0).getBalance()).isEqualByComparingTo("100.00");
     }
 
     @Test
@@ -47,7 +52,7 @@ class UserAccountRepositoryTest {
         UserAccount account = accountOpt.get();
         assertThat(account.getUsername()).isEqualTo("testuser");
         assertThat(account.getCurrencyCode()).isEqualTo("usd");
-        assertThat(account.getBalance()).isEqualTo(100.0);
+        assertThat(account.getBalanceMinor()).isEqualTo(10000L);
     }
 
     //if user doesn't exist, shouldn't return anything
@@ -57,4 +62,36 @@ class UserAccountRepositoryTest {
 
         assertThat(accountOpt).isNotPresent();
     }
+
+    @Test
+    void streamBalances_shouldIncludePendingLedgerEntries() {
+        // one pending deposit on top of the stored balance
+        ledgerEntryRepository.save(new LedgerEntry("testuser", "usd", LedgerEntryType.DEPOSIT, 2500L, null));
+        userAccountRepository.save(new UserAccount("another", "eur", 700L));
+
+        try (Stream<Object[]> balances = userAccountRepository.streamBalances()) {
+            List<Object[]> rows = balances.toList();
+
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(0)[0]).isEqualTo("another");
+            assertThat(((Number) rows.get(0)[2]).longValue()).isEqualTo(700L);
+            assertThat(rows.get(1)[0]).isEqualTo("testuser");
+            assertThat(rows.get(1)[1]).isEqualTo("usd");
+            assertThat(((Number) rows.get(1)[2]).longValue()).isEqualTo(12500L);
+        }
+    }
+
+    @Test
+    void findBalances_shouldIncludePendingLedgerEntries() {
+        ledgerEntryRepository.save(new LedgerEntry("testuser", "usd", LedgerEntryType.DEPOSIT, 2500L, null));
+        ledgerEntryRepository.save(new LedgerEntry("testuser", "usd", LedgerEntryType.TRANSFER_OUT, -500L, null));
+
+        assertThat(userAccountRepository.findBalance("testuser", "usd")).contains(12000L);
+        assertThat(userAccountRepository.findBalance("testuser", "eur")).isEmpty();
+
+        List<Object[]> rows = userAccountRepository.findBalancesByUsername("testuser");
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[0]).isEqualTo("usd");
+        assertThat(((Number) rows.get(0)[1]).longValue()).isEqualTo(12000L);
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(UserBatchRepository.class)
+class UserBatchRepositoryTest {
+
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void insertMissing_shouldOnlyInsertNewUsers() {
+        // bob is already registered
+        userRepository.saveAndFlush(new User("bob"));
+
+        List<String> created = userBatchRepository.insertMissing(List.of("alice", "bob", "carol"));
+
+        assertThat(created).containsExactly("alice", "carol");
+        assertThat(userRepository.findAllUsernames()).containsExactly("alice", "bob", "carol");
+        assertThat(userRepository.findById("carol")).get()
+                .extracting(User::getCreatedAt).isNotNull();
+    }
+}
@@ -7,19 +7,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(TestSecurityConfig.class)
 class UserControllerIntegrationTest {
 
     @Autowired
@@ -97,7 +105,74 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.username").value(""));
     }
 
+    @Test
+    void shouldReturnPageWithNextLink() throws Exception {
+        // a full page links to the next one
+        when(userService.getUsernames("alice", 2)).thenReturn(Arrays.asList("bob", "carol"));
 
-}
+        mockMvc.perform(get("/users").param("after", "alice").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("bob"))
+                .andExpect(header().string("Link", "<http://localhost/users?after=carol&limit=2>; rel=\"next\""));
+    }
+
+    @Test
+    void shouldOmitNextLinkOnLastPage() throws Exception {
+        // fewer users than the limit -> no next page
+        when(userService.getUsernames("carol", 2)).thenReturn(Arrays.asList("dave"));
+
+        mockMvc.perform(get("/users").param("after", "carol").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("dave"))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void shouldRejectInvalidPageSize() throws Exception {
+        mockMvc.perform(get("/users").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void shouldStreamAllUsers() throws Exception {
+        // service writes the usernames straight to the response
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("[\"alice\",\"bob\"]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userService).writeUsernames(any());
+
+        MvcResult result = mockMvc.perform(get("/users").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[1]").value("bob"));
+    }
 
+    @Test
+    void shouldAddUsersInBatch() throws Exception {
+        // two new users, one already registered
+        when(userService.addUsers(Arrays.asList("alice", "bob", "carol"))).thenReturn(new UserBatchResponse(2, 1));
 
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList("alice", "bob", "carol"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.existing").value(1));
+    }
+
+    @Test
+    void shouldRejectEmptyUserBatch() throws Exception {
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+}
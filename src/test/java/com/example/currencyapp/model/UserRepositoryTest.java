@@ -4,9 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -93,5 +96,31 @@ class UserRepositoryTest {
         assertThat(found).isPresent();
         assertThat(found.get().getCreatedAt()).isBeforeOrEqualTo(LocalDateTime.now());
     }
-}
 
+    @Test
+    void shouldPageUsernamesByKey() {
+        // five users saved out of order
+        for (String username : new String[] {"dave", "alice", "erin", "carol", "bob"}) {
+            userRepository.save(new User(username));
+        }
+
+        // first page, then the page after its last username
+        List<String> first = userRepository.findUsernames(PageRequest.of(0, 2));
+        List<String> second = userRepository.findUsernamesAfter(first.get(1), PageRequest.of(0, 2));
+        List<String> last = userRepository.findUsernamesAfter(second.get(1), PageRequest.of(0, 2));
+
+        assertThat(first).containsExactly("alice", "bob");
+        assertThat(second).containsExactly("carol", "dave");
+        assertThat(last).containsExactly("erin");
+    }
+
+    @Test
+    void shouldStreamUsernamesInOrder() {
+        userRepository.save(new User("bob"));
+        userRepository.save(new User("alice"));
+
+        try (Stream<String> usernames = userRepository.streamUsernames()) {
+            assertThat(usernames).containsExactly("alice", "bob");
+        }
+    }
+}
@@ -14,23 +14,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.annotation.Import;
 
 @SpringBootTest
+@Import(TestSecurityConfig.class)
 class UserServiceTest {
 
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private UserBatchRepository userBatchRepository;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
     @Test
     void getAllUsernames_shouldReturnListOfUsernames() {
         // add new users
         User user1 = new User("alice");
         User user2 = new User("bob");
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.findAllUsernames()).thenReturn(Arrays.asList(user1.getUsername(), user2.getUsername()));
 
         // now get the users
         List<String> usernames = userService.getAllUsernames();
@@ -65,4 +74,45 @@ class UserServiceTest {
         assertEquals("User registered successfully", result);
         verify(userRepository, times(1)).save(any(User.class));
     }
+
+    @Test
+    void addUser_shouldMakeUserKnownWithoutAnotherLookup() {
+        // register a user, then check it exists
+        String username = "cachedUser";
+        when(userRepository.existsById(username)).thenReturn(false);
+        userService.addUser(username);
+        clearInvocations(userRepository);
+
+        // existence now comes from the directory, not the database
+        assertTrue(userDirectory.exists(username));
+        verify(userRepository, never()).existsById(username);
+    }
+
+    @Test
+    void addUsers_shouldDeduplicateAndCountCreatedAndExisting() {
+        // alice is listed twice and bob already exists
+        when(userBatchRepository.insertMissing(List.of("alice", "bob", "carol")))
+                .thenReturn(List.of("alice", "carol"));
+
+        UserBatchResponse response = userService.addUsers(Arrays.asList("alice", "bob", "alice", null, "carol"));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getExisting());
+        verify(userRepository, never()).save(any());
+        assertTrue(userDirectory.exists("carol"));
+    }
+
+    @Test
+    void addUsers_shouldRetryChunkOnConcurrentRegistration() {
+        // first attempt races with another registration of dave
+        when(userBatchRepository.insertMissing(List.of("dave")))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.of());
+
+        UserBatchResponse response = userService.addUsers(List.of("dave"));
+
+        assertEquals(0, response.getCreated());
+        assertEquals(1, response.getExisting());
+        verify(userBatchRepository, times(2)).insertMissing(List.of("dave"));
+    }
 }
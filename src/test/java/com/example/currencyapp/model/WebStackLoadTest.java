@@ -0,0 +1,125 @@
+package com.example.currencyapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// rate quotes over HTTP at a rising number of concurrent connections, servlet stack versus reactive stack
+// needs a file descriptor limit above 25k (client and server share the JVM)
+// run with: mvn test -Dtest=WebStackLoadTest -Dloadtest=true
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class WebStackLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebStackLoadTest.class);
+
+    private static final int[] CONNECTIONS = {1000, 5000, 10000};
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+
+    // not @Configuration classes, so component scans and test slices in this package do not pick them up
+    @EnableAutoConfiguration
+    @Import({CurrencyController.class, RatesResponder.class, RateStreamService.class, CurrencyService.class,
+            RateApiClient.class, CurrencyRateBatchRepository.class})
+    static class ServletApplication {
+
+        @Bean
+        SecurityFilterChain openFilterChain(HttpSecurity http) throws Exception {
+            return http
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .csrf(csrf -> csrf.disable())
+                    .build();
+        }
+    }
+
+    @EnableAutoConfiguration
+    @Import({ReactiveWebConfig.class, ReactiveCurrencyController.class, RatesResponder.class, ReactiveRateService.class,
+            CurrencyService.class, RateApiClient.class, CurrencyRateBatchRepository.class})
+    static class ReactiveApplication {
+
+        @Bean
+        SecurityWebFilterChain openFilterChain(ServerHttpSecurity http) {
+            return http
+                    .authorizeExchange(exchanges -> exchanges.anyExchange().permitAll())
+                    .csrf(csrf -> csrf.disable())
+                    .build();
+        }
+    }
+
+    @Test
+    void reactiveStack_ShouldServeEveryConnectionLevel() throws Exception {
+        List<LoadDriver.Result> servlet = run(ServletApplication.class, WebApplicationType.SERVLET);
+        List<LoadDriver.Result> reactive = run(ReactiveApplication.class, WebApplicationType.REACTIVE);
+
+        for (int i = 0; i < CONNECTIONS.length; i++) {
+            logger.info("servlet:  {}", servlet.get(i));
+            logger.info("reactive: {}", reactive.get(i));
+        }
+
+        assertThat(reactive).allMatch(result -> result.getErrors() == 0);
+    }
+
+    private List<LoadDriver.Result> run(Class<?> application, WebApplicationType type) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(type)
+                .properties("server.port=0",
+                        "management.server.port=-1",
+                        "spring.datasource.url=jdbc:h2:mem:" + type + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.com.example.currencyapp=WARN")
+                .run()) {
+
+            // today's rates come from the database and are loaded before the first request
+            CurrencyRateRepository rates = context.getBean(CurrencyRateRepository.class);
+            rates.save(rate("USD", 1.0));
+            rates.save(rate("EUR", 0.9187));
+            rates.save(rate("GBP", 0.7912));
+            context.getBean(CurrencyService.class).getSnapshot();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<LoadDriver.Result> results = new ArrayList<>(CONNECTIONS.length);
+            for (int connections : CONNECTIONS) {
+                results.add(new LoadDriver(connections, sequence -> request(port, sequence)).run(WARMUP, MEASUREMENT));
+            }
+            return results;
+        }
+    }
+
+    private static CurrencyRate rate(String currencyCode, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setDate(LocalDate.now());
+        rate.setCurrencyCode(currencyCode);
+        rate.setRate(value);
+        return rate;
+    }
+
+    // alternate between the full rate table and a single quote
+    private static HttpRequest request(int port, long sequence) {
+        if (sequence % 2 == 0) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/currencies")).GET().build();
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/currencies"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"fromCurrency\":\"usd\",\"toCurrency\":\"gbp\"}"))
+                .build();
+    }
+}